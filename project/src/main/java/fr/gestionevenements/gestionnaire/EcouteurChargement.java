@@ -0,0 +1,13 @@
+package fr.gestionevenements.gestionnaire;
+
+import fr.gestionevenements.modele.Evenement;
+
+import java.util.List;
+
+//Suivi d'un chargement progressif du catalogue d'événements.
+public interface EcouteurChargement {
+
+    //Appelé pour chaque lot d'événements lus (octetsLus est une estimation de la progression) ;
+    //le catalogue n'est remplacé qu'après le dernier lot, et reste inchangé si la lecture échoue
+    void lotCharge(List<Evenement> lot, long octetsLus, long octetsTotal);
+}
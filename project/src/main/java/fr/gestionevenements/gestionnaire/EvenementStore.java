@@ -0,0 +1,32 @@
+package fr.gestionevenements.gestionnaire;
+
+import fr.gestionevenements.modele.Evenement;
+
+import java.util.Map;
+import java.util.function.Consumer;
+
+//Abstraction du stockage des événements utilisée par GestionEvenements.
+public interface EvenementStore {
+
+    //Ajoute l'événement uniquement si aucun événement ne porte déjà son ID (opération atomique)
+    boolean ajouterSiAbsent(Evenement evenement);
+
+    //Supprime l'événement et le retourne, ou null s'il n'existait pas
+    Evenement supprimer(String id);
+
+    Evenement rechercher(String id);
+
+    //Parcourt tous les événements présents dans le store
+    void parcourir(Consumer<Evenement> action);
+
+    //Retourne une vue immuable et cohérente du store, partagée entre lecteurs tant qu'il n'est pas modifié
+    Map<String, Evenement> instantane();
+
+    //Numéro de version incrémenté à chaque modification du store
+    long version();
+
+    //Remplace atomiquement tout le contenu du store (utilisé au chargement)
+    void remplacerTout(Map<String, Evenement> evenements);
+
+    int taille();
+}
@@ -3,24 +3,98 @@ package fr.gestionevenements.gestionnaire;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import fr.gestionevenements.modele.*;
+import fr.gestionevenements.serialisation.EcritureAtomique;
 import fr.gestionevenements.serialisation.SerializationStrategy;
+import fr.gestionevenements.service.DispatcheurNotifications;
+import fr.gestionevenements.service.OutboxNotifications;
+import fr.gestionevenements.service.PlanificateurNotifications;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 //Classe principale de gestion des événements.
 public class GestionEvenements {
     private static GestionEvenements instance;
-    private Map<String, Evenement> evenements;
+    private volatile EvenementStore evenements;
     private SerializationStrategy serializationStrategy;
+    // Délai de traitement simulé avant l'envoi d'une notification, et nombre maximal d'envois simultanés
+    private volatile PlanificateurNotifications planificateurNotifications =
+            new PlanificateurNotifications(Duration.ofSeconds(1), 64);
+    // Boîte d'envoi persistante : si elle est définie, les notifications y sont enregistrées dès leur création
+    private volatile OutboxNotifications outboxNotifications;
+    // Index secondaires maintenus à chaque ajout, suppression ou modification d'un événement
+    private final IndexTrigrammes indexNoms = new IndexTrigrammes();
+    private final IndexTemporel indexDates = new IndexTemporel();
+    private final IndexSecondaires indexAttributs = new IndexSecondaires();
+    private final EvenementModificationListener ecouteurIndex = new EvenementModificationListener() {
+        @Override
+        public void evenementModifie(Evenement evenement, String attribut) {
+            surModificationEvenement(evenement, attribut);
+        }
+
+        @Override
+        public void participantsInscrits(Evenement evenement, List<Participant> inscrits) {
+            surInscriptions(evenement, inscrits);
+        }
+    };
+    // Index non encore construits pour le store courant (catalogue projeté, décodé à la demande)
+    private final Object verrouIndex = new Object();
+    private volatile boolean indexDifferes;
+    // Journal d'écriture anticipée recevant chaque opération, s'il est activé
+    private volatile JournalEvenements journal;
+    // Verrous par groupe d'ID : l'ajout et la suppression d'un même ID sont journalisés dans l'ordre du store
+    private final Object[] verrousIdentifiants = new Object[64];
+    // Vérification périodique de la taille du journal et seuil déclenchant sa compaction
+    private static final Duration PERIODE_COMPACTION = Duration.ofMinutes(1);
+    private static final long SEUIL_COMPACTION = 4L * 1024 * 1024;
+    // Sauvegarde incrémentale : segments du catalogue et répertoire dont ils reflètent le contenu
+    private static final int NOMBRE_SEGMENTS = 64;
+    private static final String MANIFESTE_SEGMENTS = "segments.manifest";
+    private static final String PREFIXE_SEGMENT = "segment-";
+    private static final String SUFFIXE_SEGMENT = ".dat";
+    private final SuiviSegments suiviSegments =
+            new SuiviSegments(PartitionnementSegments.parIdentifiant(NOMBRE_SEGMENTS));
+    private final Object verrouSegments = new Object();
+    private volatile Path repertoireSegments;
+    // Thread unique des sauvegardes en arrière-plan
+    private final ExecutorService sauvegardes = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("sauvegarde-evenements").daemon().factory());
+    // Lecture et écriture parallèles des segments, un fil par cœur
+    private final ExecutorService poolSegments = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    // Nombre d'événements transmis à la fois à l'écouteur d'un chargement progressif
+    private static final int TAILLE_LOT_CHARGEMENT = 500;
 
     /*Constructeur privé pour le pattern Singleton*/
     private GestionEvenements() {
-        this.evenements = new HashMap<>();
-
-
+        this.evenements = new StripedEvenementStore();
+        Arrays.setAll(verrousIdentifiants, i -> new Object());
     }
 
     //Obtient l'instance unique de GestionEvenements
@@ -36,55 +110,490 @@ public class GestionEvenements {
         this.serializationStrategy = strategy;
     }
 
+    //Remplace le store d'événements utilisé (le contenu de l'ancien store n'est pas repris)
+    public void setEvenementStore(EvenementStore store) {
+        if (store == null) {
+            throw new IllegalArgumentException("Le store d'événements ne peut pas être null");
+        }
+        debrancherTout();
+        this.evenements = store;
+        store.parcourir(this::brancher);
+        compacterJournal();
+    }
+
+    public EvenementStore getEvenementStore() {
+        return evenements;
+    }
+
+    /*
+     * Ouvre un fichier sauvegardé au format binaire en le projetant en mémoire : aucun événement n'est décodé
+     * à l'ouverture, chacun l'est à son premier accès. Les index ne sont construits qu'à la première recherche
+     * qui en a besoin (ce qui décode alors tout le catalogue).
+     */
+    public void ouvrirEvenementsMappes(String fichier) {
+        if (journal != null) {
+            throw new IllegalStateException("Le journal doit être désactivé avant d'ouvrir un fichier projeté");
+        }
+        MappedEvenementStore store;
+        try {
+            store = MappedEvenementStore.ouvrir(Path.of(fichier));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible d'ouvrir le fichier " + fichier, e);
+        }
+        synchronized (verrouIndex) {
+            debrancherTout();
+            this.evenements = store;
+            indexDifferes = true;
+        }
+    }
+
+    /*
+     * Active la persistance incrémentale : chaque opération est ajoutée au journal du répertoire au lieu
+     * de nécessiter une sauvegarde complète. Si le répertoire contient déjà un journal, le catalogue est
+     * reconstitué à partir de celui-ci (rejeu au démarrage) ; sinon le catalogue courant en devient l'état initial.
+     * Le journal est compacté en instantané (via la stratégie de sérialisation) dès qu'il grossit.
+     */
+    public void activerJournal(String repertoire) {
+        if (serializationStrategy == null) {
+            throw new IllegalStateException("Aucune stratégie de sérialisation n'a été définie");
+        }
+        desactiverJournal();
+        // Toutes les modifications doivent être écoutées : les index différés sont construits
+        assurerIndex();
+        JournalEvenements nouveau;
+        try {
+            nouveau = new JournalEvenements(Path.of(repertoire), serializationStrategy);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible d'ouvrir le journal " + repertoire, e);
+        }
+        if (!nouveau.estNeuf()) {
+            debrancherTout();
+            evenements.remplacerTout(new HashMap<>(nouveau.getEvenementsRestaures()));
+            evenements.parcourir(this::brancher);
+        }
+        this.journal = nouveau;
+        compacterJournal();
+        // Lambda et non référence de méthode : la compaction suit le store courant, remplacé au chargement
+        nouveau.planifierCompaction(() -> evenements.instantane(), PERIODE_COMPACTION, SEUIL_COMPACTION);
+    }
+
+    //Écrit les dernières opérations journalisées puis arrête la persistance incrémentale
+    public void desactiverJournal() {
+        JournalEvenements courant = journal;
+        if (courant == null) {
+            return;
+        }
+        journal = null;
+        try {
+            courant.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible de fermer le journal", e);
+        }
+    }
+
+    //Futur complété quand toutes les opérations déjà effectuées sont durables dans le journal
+    public CompletableFuture<Void> synchroniserJournal() {
+        JournalEvenements courant = journal;
+        return courant == null ? CompletableFuture.completedFuture(null) : courant.synchroniser();
+    }
+
 
     public void ajouterEvenement(Evenement evenement) throws EvenementDejaExistantException {
-        if (evenements.containsKey(evenement.getId())) {
-            throw new EvenementDejaExistantException("Un événement avec l'ID " + evenement.getId() + " existe déjà");
+        // Vérification et insertion atomiques : deux threads ne peuvent pas ajouter le même ID
+        synchronized (verrouIdentifiant(evenement.getId())) {
+            if (!evenements.ajouterSiAbsent(evenement)) {
+                throw new EvenementDejaExistantException("Un événement avec l'ID " + evenement.getId() + " existe déjà");
+            }
+            brancher(evenement);
+            JournalEvenements courant = journal;
+            if (courant != null) {
+                courant.ajout(evenement);
+            }
         }
-        evenements.put(evenement.getId(), evenement);
     }
 
     //Supprime un événement de la liste des événements
     public void supprimerEvenement(String id) {
-        evenements.remove(id);
+        Evenement supprime;
+        synchronized (verrouIdentifiant(id)) {
+            supprime = evenements.supprimer(id);
+            JournalEvenements courant = journal;
+            if (supprime != null && courant != null) {
+                courant.suppression(id);
+            }
+        }
+        if (supprime != null) {
+            debrancher(supprime);
+        }
+    }
+
+    private Object verrouIdentifiant(String id) {
+        int h = id.hashCode();
+        return verrousIdentifiants[(h ^ (h >>> 16)) & (verrousIdentifiants.length - 1)];
     }
 
     //Recherche un événement par son ID
     public Evenement rechercherEvenement(String id) {
-        return evenements.get(id);
+        return evenements.rechercher(id);
     }
 
-    //Recherche des événements par leur nom (recherche partielle)
+    //Recherche des événements par leur nom (recherche partielle, via l'index de trigrammes)
     public Map<String, Evenement> rechercherEvenementParNom(String nom) {
-        Map<String, Evenement> resultats = new HashMap<>();
+        assurerIndex();
+        return indexNoms.rechercher(nom);
+    }
 
-        evenements.values().stream()
-            .filter(e -> e.getNom().toLowerCase().contains(nom.toLowerCase()))
-            .forEach(e -> resultats.put(e.getId(), e));
+    //Recherche les événements dont tous les attributs indexés correspondent aux critères (attribut -> valeur)
+    public Map<String, Evenement> rechercherEvenementsParAttributs(Map<String, String> criteres) {
+        if (criteres == null || criteres.isEmpty()) {
+            throw new IllegalArgumentException("Au moins un critère de recherche est requis");
+        }
+        assurerIndex();
+        return indexAttributs.rechercher(criteres);
+    }
 
-        return resultats;
+    //Recherche les événements se déroulant dans un lieu donné
+    public Map<String, Evenement> rechercherEvenementsParLieu(String lieu) {
+        return rechercherEvenementsParAttributs(Map.of(Evenement.ATTRIBUT_LIEU, lieu));
+    }
+
+    //Recherche les événements d'un type donné (Concert, Conference)
+    public Map<String, Evenement> rechercherEvenementsParType(Class<? extends Evenement> type) {
+        return rechercherEvenementsParAttributs(Map.of(Evenement.ATTRIBUT_TYPE, type.getSimpleName()));
+    }
+
+    //Recherche les événements ayant lieu entre deux dates (bornes incluses), triés par date
+    public List<Evenement> rechercherEvenementsEntre(LocalDateTime debut, LocalDateTime fin) {
+        if (debut == null || fin == null) {
+            throw new IllegalArgumentException("Les dates de début et de fin sont obligatoires");
+        }
+        assurerIndex();
+        return indexDates.entre(debut, fin);
+    }
+
+    //Recherche les événements ayant lieu strictement avant une date, triés par date
+    public List<Evenement> rechercherEvenementsAvant(LocalDateTime date) {
+        if (date == null) {
+            throw new IllegalArgumentException("La date est obligatoire");
+        }
+        assurerIndex();
+        return indexDates.avant(date);
+    }
+
+    //Recherche les événements ayant lieu strictement après une date, triés par date
+    public List<Evenement> rechercherEvenementsApres(LocalDateTime date) {
+        if (date == null) {
+            throw new IllegalArgumentException("La date est obligatoire");
+        }
+        assurerIndex();
+        return indexDates.apres(date, Integer.MAX_VALUE);
+    }
+
+    //Retourne les prochains événements à venir, au plus nombre, triés par date
+    public List<Evenement> prochainsEvenements(int nombre) {
+        if (nombre < 0) {
+            throw new IllegalArgumentException("Le nombre d'événements doit être positif");
+        }
+        assurerIndex();
+        return indexDates.apres(LocalDateTime.now(), nombre);
     }
 
     //Sauvegarde la liste des événements en utilisant la stratégie de sérialisation définie
+    //(un répertoire existant reçoit une sauvegarde segmentée, écrite en parallèle)
     public void sauvegarderEvenements(String fichier) {
         if (serializationStrategy == null) {
             throw new IllegalStateException("Aucune stratégie de sérialisation n'a été définie");
         }
-        serializationStrategy.serialiser(evenements, fichier);
+        if (Files.isDirectory(Path.of(fichier))) {
+            sauvegarderSegmentsModifies(fichier);
+            return;
+        }
+        serializationStrategy.serialiser(instantanePourSauvegarde(fichier), fichier);
+    }
+
+    /*
+     * Sauvegarde en arrière-plan : le catalogue est encodé immédiatement sur le thread appelant, qui voit
+     * l'état courant des événements, puis les octets obtenus sont écrits sur le thread des sauvegardes
+     * (les sauvegardes successives s'exécutent dans l'ordre). Un répertoire reçoit de même les segments modifiés.
+     * Le futur retourne le nombre d'événements sauvegardés, ou échoue si le fichier n'a pas pu être remplacé.
+     */
+    public CompletableFuture<Integer> sauvegarderEvenementsAsync(String fichier) {
+        SerializationStrategy strategie = serializationStrategy;
+        if (strategie == null) {
+            throw new IllegalStateException("Aucune stratégie de sérialisation n'a été définie");
+        }
+        if (Files.isDirectory(Path.of(fichier))) {
+            int taille = evenements.taille();
+            return ecrireSegmentsModifies(fichier).thenApply(segments -> taille);
+        }
+        Map<String, Evenement> instantane = instantanePourSauvegarde(fichier);
+        byte[] contenu = encoder(strategie, instantane);
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                EcritureAtomique.ecrire(Path.of(fichier), sortie -> sortie.write(contenu));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Échec de la sauvegarde dans " + fichier, e);
+            }
+            System.out.println("✓ Sauvegarde en arrière-plan réussie: " + instantane.size()
+                    + " événements sauvegardés dans " + fichier);
+            return instantane.size();
+        }, sauvegardes);
+    }
+
+    // Encode les événements en mémoire, sur le thread appelant
+    private static byte[] encoder(SerializationStrategy strategie, Map<String, Evenement> contenu) {
+        ByteArrayOutputStream octets = new ByteArrayOutputStream();
+        try {
+            strategie.ecrire(contenu, octets);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible d'encoder les événements", e);
+        }
+        return octets.toByteArray();
+    }
+
+    //Définit la répartition des événements entre les fichiers des sauvegardes segmentées (par ID ou par mois)
+    public void definirPartitionnementSegments(PartitionnementSegments partitionnement) {
+        if (partitionnement == null) {
+            throw new IllegalArgumentException("Le partitionnement ne peut pas être null");
+        }
+        synchronized (verrouSegments) {
+            synchronized (verrouIndex) {
+                suiviSegments.vider(partitionnement);
+                if (!indexDifferes) {
+                    evenements.parcourir(suiviSegments::placer);
+                }
+            }
+            // Les segments déjà écrits suivent l'ancienne répartition : la prochaine sauvegarde les réécrit tous
+            repertoireSegments = null;
+        }
+    }
+
+    public PartitionnementSegments getPartitionnementSegments() {
+        return suiviSegments.getPartitionnement();
+    }
+
+    /*
+     * Sauvegarde incrémentale dans un répertoire découpé en segments (segment-<nom>.dat, un fichier par segment) :
+     * seuls les segments contenant un événement ajouté, supprimé ou modifié depuis la dernière sauvegarde
+     * sont réécrits, chacun atomiquement et en parallèle sur le pool des segments. La première sauvegarde
+     * dans un répertoire, ou après un changement de partitionnement, les écrit tous.
+     * Retourne le nombre de segments réécrits.
+     */
+    public int sauvegarderSegmentsModifies(String repertoire) {
+        try {
+            return ecrireSegmentsModifies(repertoire).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException erreur) {
+                throw erreur;
+            }
+            throw e;
+        }
+    }
+
+    /*
+     * Encode les segments modifiés sur le thread appelant (en parallèle sur le pool des segments), puis confie
+     * leur écriture au thread des sauvegardes. La soumission se fait sous verrouSegments : les écritures
+     * s'exécutent dans l'ordre des encodages et une écriture ancienne ne remplace jamais un segment plus récent.
+     * Le futur retourne le nombre de segments réécrits ; en cas d'échec, les segments restent à réécrire.
+     */
+    private CompletableFuture<Integer> ecrireSegmentsModifies(String repertoire) {
+        SerializationStrategy strategie = serializationStrategy;
+        if (strategie == null) {
+            throw new IllegalStateException("Aucune stratégie de sérialisation n'a été définie");
+        }
+        // Les modifications ne sont suivies que pour les événements branchés
+        assurerIndex();
+        Path dossier = Path.of(repertoire).toAbsolutePath().normalize();
+        synchronized (verrouSegments) {
+            String description = suiviSegments.getPartitionnement().description();
+            if (!dossier.equals(repertoireSegments) || !description.equals(lireManifeste(dossier))) {
+                suiviSegments.marquerTout();
+            }
+            SuiviSegments.Modifies modifies = suiviSegments.prendreModifies();
+            Map<String, byte[]> contenus = new HashMap<>();
+            try {
+                List<String> segments = new ArrayList<>(modifies.segments());
+                List<Callable<byte[]>> encodages = new ArrayList<>(segments.size());
+                for (String segment : segments) {
+                    encodages.add(() -> encoderSegment(strategie, segment));
+                }
+                List<byte[]> encodes = executerSurSegments(encodages);
+                for (int i = 0; i < segments.size(); i++) {
+                    contenus.put(segments.get(i), encodes.get(i));
+                }
+            } catch (IOException e) {
+                suiviSegments.remarquer(modifies);
+                throw new UncheckedIOException("Échec de la sauvegarde incrémentale dans " + repertoire, e);
+            } catch (RuntimeException e) {
+                suiviSegments.remarquer(modifies);
+                throw e;
+            }
+            repertoireSegments = dossier;
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    ecrireSegments(dossier, contenus, modifies.complet(), description);
+                } catch (IOException e) {
+                    suiviSegments.remarquer(modifies);
+                    throw new UncheckedIOException("Échec de la sauvegarde incrémentale dans " + repertoire, e);
+                } catch (RuntimeException e) {
+                    suiviSegments.remarquer(modifies);
+                    throw e;
+                }
+                return contenus.size();
+            }, sauvegardes);
+        }
     }
+
+    // Écrit chaque segment atomiquement (un segment vide est supprimé), puis le manifeste après une réécriture complète
+    private void ecrireSegments(Path dossier, Map<String, byte[]> contenus, boolean complet, String description)
+            throws IOException {
+        Files.createDirectories(dossier);
+        List<Callable<Void>> ecritures = new ArrayList<>(contenus.size());
+        contenus.forEach((segment, contenu) -> ecritures.add(() -> {
+            Path fichier = dossier.resolve(PREFIXE_SEGMENT + segment + SUFFIXE_SEGMENT);
+            if (contenu == null) {
+                Files.deleteIfExists(fichier);
+            } else {
+                EcritureAtomique.ecrire(fichier, sortie -> sortie.write(contenu));
+            }
+            return null;
+        }));
+        executerSurSegments(ecritures);
+        if (complet) {
+            supprimerSegmentsObsoletes(dossier, contenus.keySet());
+            Path temporaire = dossier.resolve(MANIFESTE_SEGMENTS + ".tmp");
+            Files.writeString(temporaire, description);
+            Files.move(temporaire, dossier.resolve(MANIFESTE_SEGMENTS),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    /*
+     * Charge un catalogue sauvegardé par segments : chaque fichier est désérialisé par une tâche du pool
+     * des segments, puis les résultats sont fusionnés dans le store. Le temps de démarrage diminue ainsi
+     * avec le nombre de cœurs. La sauvegarde incrémentale suivante ne réécrira que les changements.
+     */
+    public int chargerEvenementsSegmentes(String repertoire) {
+        SerializationStrategy strategie = serializationStrategy;
+        if (strategie == null) {
+            throw new IllegalStateException("Aucune stratégie de sérialisation n'a été définie");
+        }
+        Path dossier = Path.of(repertoire).toAbsolutePath().normalize();
+        Map<String, Evenement> charges = new HashMap<>();
+        if (Files.isDirectory(dossier)) {
+            try {
+                List<Callable<Map<String, Evenement>>> lectures = new ArrayList<>();
+                for (Path segment : listerSegments(dossier)) {
+                    lectures.add(() -> strategie.deserialiser(segment.toString()));
+                }
+                for (Map<String, Evenement> contenu : executerSurSegments(lectures)) {
+                    charges.putAll(contenu);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Impossible de lire les segments de " + repertoire, e);
+            }
+        }
+        synchronized (verrouSegments) {
+            debrancherTout();
+            evenements.remplacerTout(charges);
+            charges.values().forEach(this::brancher);
+            // Le contenu en mémoire est celui du disque : aucun segment n'est à réécrire
+            suiviSegments.prendreModifies();
+            String description = suiviSegments.getPartitionnement().description();
+            repertoireSegments = description.equals(lireManifeste(dossier)) ? dossier : null;
+        }
+        compacterJournal();
+        return charges.size();
+    }
+
+    // Contenu encodé d'un segment, ou null s'il ne contient plus aucun événement
+    private byte[] encoderSegment(SerializationStrategy strategie, String segment) {
+        Map<String, Evenement> contenu = new HashMap<>();
+        for (String id : suiviSegments.membres(segment)) {
+            Evenement evenement = evenements.rechercher(id);
+            if (evenement != null) {
+                contenu.put(id, evenement);
+            }
+        }
+        return contenu.isEmpty() ? null : encoder(strategie, contenu);
+    }
+
+    // Exécute les tâches sur le pool des segments ; la première erreur rencontrée est relancée telle quelle
+    private <T> List<T> executerSurSegments(List<Callable<T>> taches) throws IOException {
+        List<T> resultats = new ArrayList<>(taches.size());
+        try {
+            for (Future<T> tache : poolSegments.invokeAll(taches)) {
+                resultats.add(tache.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Traitement des segments interrompu", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException erreur) {
+                throw erreur;
+            }
+            if (e.getCause() instanceof RuntimeException erreur) {
+                throw erreur;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        return resultats;
+    }
+
+    private static List<Path> listerSegments(Path dossier) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> fichiers = Files.newDirectoryStream(dossier,
+                PREFIXE_SEGMENT + "*" + SUFFIXE_SEGMENT)) {
+            fichiers.forEach(segments::add);
+        }
+        return segments;
+    }
+
+    // Segments d'une répartition antérieure, qui ne doivent plus être relus
+    private static void supprimerSegmentsObsoletes(Path dossier, Set<String> segments) throws IOException {
+        for (Path fichier : listerSegments(dossier)) {
+            String nom = fichier.getFileName().toString();
+            String segment = nom.substring(PREFIXE_SEGMENT.length(), nom.length() - SUFFIXE_SEGMENT.length());
+            if (!segments.contains(segment)) {
+                Files.delete(fichier);
+            }
+        }
+    }
+
+    private static String lireManifeste(Path dossier) {
+        try {
+            return Files.readString(dossier.resolve(MANIFESTE_SEGMENTS)).trim();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private Map<String, Evenement> instantanePourSauvegarde(String fichier) {
+        // Un fichier encore projeté ne doit pas être remplacé pendant qu'il est lu : le store s'en détache d'abord
+        if (evenements instanceof MappedEvenementStore mappe && mappe.getFichier() != null
+                && memeFichier(mappe.getFichier(), Path.of(fichier))) {
+            mappe.detacher();
+        }
+        return evenements.instantane();
+    }
+
+    //Charge les événements depuis un fichier, ou en parallèle depuis un répertoire de sauvegarde segmentée
     public void chargerEvenements(String fichier) {
         if (serializationStrategy == null) {
             throw new IllegalStateException("Aucune stratégie de sérialisation n'a été définie");
         }
+        if (Files.isDirectory(Path.of(fichier))) {
+            System.out.println("Nombre d'événements chargés: " + chargerEvenementsSegmentes(fichier));
+            return;
+        }
 
         Map<String, Evenement> eventsLoaded = serializationStrategy.deserialiser(fichier);
         if (eventsLoaded != null) {
             System.out.println("Nombre d'événements chargés: " + eventsLoaded.size());
-            // Afficher les clés pour vérifier
-            eventsLoaded.keySet().forEach(key ->
-                    System.out.println("Événement chargé: " + key + " -> " + eventsLoaded.get(key).getNom())
-            );
-            this.evenements = eventsLoaded;
+            debrancherTout();
+            evenements.remplacerTout(eventsLoaded);
+            eventsLoaded.values().forEach(this::brancher);
+            compacterJournal();
             // Notifier l'interface que les données ont changé
            // notifierObservateurs(); // Si vous utilisez le pattern Observer
         } else {
@@ -93,22 +602,230 @@ public class GestionEvenements {
 
     }
 
+    /*
+     * Charge les événements en flux sur un thread dédié : l'écouteur reçoit les événements lus par lots
+     * pour un affichage progressif, et le catalogue n'est remplacé qu'une fois le fichier entièrement lu.
+     * Si la lecture échoue (fichier tronqué ou corrompu), le catalogue courant est conservé et le futur échoue.
+     * Le futur retourne le nombre d'événements chargés.
+     */
+    public CompletableFuture<Integer> chargerEvenementsAsync(String fichier, EcouteurChargement ecouteur) {
+        SerializationStrategy strategie = serializationStrategy;
+        if (strategie == null) {
+            throw new IllegalStateException("Aucune stratégie de sérialisation n'a été définie");
+        }
+        CompletableFuture<Integer> resultat = new CompletableFuture<>();
+        Thread.ofVirtual().name("chargement-evenements").start(() -> {
+            try {
+                resultat.complete(chargerEnFlux(strategie, Path.of(fichier), ecouteur));
+            } catch (IOException | RuntimeException e) {
+                resultat.completeExceptionally(e);
+            }
+        });
+        return resultat;
+    }
+
+    private int chargerEnFlux(SerializationStrategy strategie, Path fichier, EcouteurChargement ecouteur)
+            throws IOException {
+        Map<String, Evenement> charges = new HashMap<>();
+        long taille = Files.exists(fichier) ? Files.size(fichier) : 0;
+        List<Evenement> lot = new ArrayList<>(TAILLE_LOT_CHARGEMENT);
+        if (taille > 0) {
+            try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ);
+                 InputStream entree = new BufferedInputStream(Channels.newInputStream(canal))) {
+                strategie.lire(entree, evenement -> {
+                    if (charges.putIfAbsent(evenement.getId(), evenement) == null) {
+                        lot.add(evenement);
+                    }
+                    if (lot.size() == TAILLE_LOT_CHARGEMENT) {
+                        ecouteur.lotCharge(List.copyOf(lot), position(canal), taille);
+                        lot.clear();
+                    }
+                });
+            }
+        }
+        // Le fichier a été lu en entier : le catalogue peut être remplacé et réindexé
+        debrancherTout();
+        evenements.remplacerTout(charges);
+        charges.values().forEach(this::brancher);
+        ecouteur.lotCharge(List.copyOf(lot), taille, taille);
+        compacterJournal();
+        return charges.size();
+    }
+
+    private static long position(FileChannel canal) {
+        try {
+            return canal.position();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+
+    //Désabonne un observateur (participant supprimé...) de tous les événements du catalogue
+    public void desabonnerObservateur(ParticipantObserver observateur) {
+        evenements.parcourir(evenement -> evenement.supprimerObservateur(observateur));
+    }
+
+    //Nombre d'observateurs abonnés à chaque événement (ID de l'événement -> nombre)
+    public Map<String, Integer> getNombreObservateursParEvenement() {
+        Map<String, Integer> nombres = new HashMap<>();
+        evenements.parcourir(evenement ->
+                nombres.put(evenement.getId(), evenement.getStatistiquesObservateurs().abonnes()));
+        return nombres;
+    }
 
+    /*
+     * Envoie une notification différée à un participant. Avec une boîte d'envoi, la notification y est enregistrée
+     * immédiatement avec son échéance et le futur est terminé dès qu'elle est durable ; sinon le planificateur de
+     * notifications la garde en mémoire pendant le délai et le futur est terminé après la livraison.
+     */
     public CompletableFuture<Void> envoyerNotificationAsync(Participant participant, String message) {
-        return CompletableFuture.runAsync(() -> {
-            // Simuler un délai de traitement
+        PlanificateurNotifications planificateur = planificateurNotifications;
+        OutboxNotifications outbox = outboxNotifications;
+        if (outbox == null) {
+            return planificateur.envoyer(participant, message);
+        }
+        try {
+            outbox.deposer(participant.creerNotification(message), planificateur.getDelai());
+            return CompletableFuture.completedFuture(null);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /*
+     * Enregistre les notifications dans une boîte d'envoi persistante dès leur création : celles des événements
+     * (qui l'utilisent comme dispatcheur) et celles de envoyerNotificationAsync. Le délai et le regroupement sont
+     * appliqués par son worker, de sorte qu'un arrêt brutal pendant l'attente ne perd aucune notification.
+     * null rétablit la distribution synchrone et le planificateur en mémoire.
+     */
+    public synchronized void setOutboxNotifications(OutboxNotifications outbox) {
+        this.outboxNotifications = outbox;
+        Evenement.setDispatcheurNotifications(outbox != null ? outbox : DispatcheurNotifications.SYNCHRONE);
+    }
+
+    /*
+     * Remplace le planificateur utilisé pour les notifications différées. L'ancien est arrêté en arrière-plan
+     * après avoir livré les notifications qu'il a déjà planifiées, sans bloquer l'appelant pendant leurs délais.
+     */
+    public synchronized void setPlanificateurNotifications(PlanificateurNotifications planificateur) {
+        if (planificateur == null) {
+            throw new IllegalArgumentException("Le planificateur de notifications ne peut pas être null");
+        }
+        PlanificateurNotifications ancien = planificateurNotifications;
+        this.planificateurNotifications = planificateur;
+        if (ancien != planificateur) {
+            Thread.ofVirtual().name("arret-planificateur-notifications").start(ancien::close);
+        }
+    }
+
+    private static boolean memeFichier(Path a, Path b) {
+        return a.toAbsolutePath().normalize().equals(b.toAbsolutePath().normalize());
+    }
+
+    // Inscrit l'événement dans les index et s'abonne à ses modifications
+    private void brancher(Evenement evenement) {
+        if (indexDifferes) {
+            synchronized (verrouIndex) {
+                // Les index différés seront construits à partir du contenu du store
+                if (indexDifferes) {
+                    return;
+                }
+            }
+        }
+        indexNoms.indexer(evenement);
+        indexDates.indexer(evenement);
+        indexAttributs.indexer(evenement);
+        suiviSegments.placer(evenement);
+        // Un événement peut être branché deux fois pendant la construction des index différés
+        evenement.supprimerEcouteurModification(ecouteurIndex);
+        evenement.ajouterEcouteurModification(ecouteurIndex);
+    }
+
+    private void debrancher(Evenement evenement) {
+        evenement.supprimerEcouteurModification(ecouteurIndex);
+        indexNoms.retirer(evenement.getId());
+        indexDates.retirer(evenement.getId());
+        indexAttributs.retirer(evenement.getId());
+        suiviSegments.retirer(evenement.getId());
+    }
+
+    // Retire les événements du store courant des index (aucun n'y figure tant que les index sont différés)
+    private void debrancherTout() {
+        synchronized (verrouIndex) {
+            if (!indexDifferes) {
+                evenements.parcourir(this::debrancher);
+            }
+            viderIndex();
+            indexDifferes = false;
+        }
+    }
+
+    // Construit les index différés avant leur première utilisation
+    private void assurerIndex() {
+        if (!indexDifferes) {
+            return;
+        }
+        synchronized (verrouIndex) {
+            if (indexDifferes) {
+                indexDifferes = false;
+                evenements.parcourir(this::brancher);
+            }
+        }
+    }
+
+    private void viderIndex() {
+        indexNoms.vider();
+        indexDates.vider();
+        indexAttributs.vider();
+        suiviSegments.vider(suiviSegments.getPartitionnement());
+    }
+
+    // Après un remplacement du catalogue, un instantané remplace les opérations journalisées
+    private void compacterJournal() {
+        JournalEvenements courant = journal;
+        if (courant != null) {
             try {
-                Thread.sleep(1000);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
+                courant.compacter(evenements::instantane);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Impossible de compacter le journal", e);
             }
+        }
+    }
 
-            participant.mettreAJour(message);
-        });
+    // Une inscription ne touche aucun index : seuls le journal et le suivi des segments sont concernés
+    private void surInscriptions(Evenement evenement, List<Participant> inscrits) {
+        JournalEvenements courant = journal;
+        if (courant != null) {
+            courant.inscriptions(evenement, inscrits);
+        }
+        // Une inscription ne déplace pas l'événement : son segment est seulement marqué
+        suiviSegments.marquer(evenement.getId());
+    }
+
+    private void surModificationEvenement(Evenement evenement, String attribut) {
+        JournalEvenements courant = journal;
+        if (courant != null) {
+            courant.modification(evenement, attribut);
+        }
+        // L'écouteur peut encore être appelé juste après debrancher : le suivi vérifie la présence dans le store
+        suiviSegments.replacer(evenement, evenements);
+        if (Evenement.ATTRIBUT_PARTICIPANTS.equals(attribut)) {
+            return;
+        }
+        // Un setter concurrent d'une suppression ne doit pas réindexer l'événement supprimé
+        EvenementStore store = evenements;
+        if (Evenement.ATTRIBUT_NOM.equals(attribut)) {
+            indexNoms.reindexer(evenement, store);
+        } else if (Evenement.ATTRIBUT_DATE.equals(attribut)) {
+            indexDates.reindexer(evenement, store);
+        } else if (evenement.getAttributsIndexables().containsKey(attribut)) {
+            indexAttributs.reindexer(evenement, store);
+        }
     }
 
-    //Obtient tous les événements
+    //Obtient tous les événements (vue immuable partagée, reconstruite uniquement après une modification)
     public Map<String, Evenement> getEvenements() {
-        return new HashMap<>(evenements);
+        return evenements.instantane();
     }
 }
\ No newline at end of file
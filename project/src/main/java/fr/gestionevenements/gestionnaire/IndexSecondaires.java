@@ -0,0 +1,146 @@
+package fr.gestionevenements.gestionnaire;
+
+import fr.gestionevenements.modele.Evenement;
+import fr.gestionevenements.utils.TexteUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Index secondaires génériques : pour chaque attribut déclaré par les événements
+ * (voir Evenement.declarerAttributsIndexables), associe chaque valeur normalisée aux IDs concernés.
+ * Une requête sur plusieurs attributs intersecte les ensembles d'IDs en partant du plus petit.
+ */
+class IndexSecondaires {
+    private final Map<String, Map<String, Set<String>>> index = new HashMap<>();
+    private final Map<String, Entree> entrees = new HashMap<>();
+    private final ReentrantReadWriteLock verrou = new ReentrantReadWriteLock();
+
+    //Indexe un événement, ou met à jour uniquement les attributs dont la valeur a changé
+    void indexer(Evenement evenement) {
+        indexer(evenement, null);
+    }
+
+    //Réindexe après une modification, sauf si l'événement n'est plus celui du store (supprimé entre-temps)
+    void reindexer(Evenement evenement, EvenementStore store) {
+        indexer(evenement, store);
+    }
+
+    private void indexer(Evenement evenement, EvenementStore store) {
+        verrou.writeLock().lock();
+        try {
+            if (store != null && store.rechercher(evenement.getId()) != evenement) {
+                return;
+            }
+            // Lus sous le verrou : deux réindexations concurrentes ne peuvent pas enregistrer d'anciennes valeurs
+            Map<String, String> nouveaux = normaliser(evenement.getAttributsIndexables());
+            Entree ancienne = entrees.put(evenement.getId(), new Entree(evenement, nouveaux));
+            Map<String, String> anciens = ancienne != null ? ancienne.attributs() : Map.of();
+            for (Map.Entry<String, String> attribut : anciens.entrySet()) {
+                if (!attribut.getValue().equals(nouveaux.get(attribut.getKey()))) {
+                    retirerValeur(evenement.getId(), attribut.getKey(), attribut.getValue());
+                }
+            }
+            for (Map.Entry<String, String> attribut : nouveaux.entrySet()) {
+                if (!attribut.getValue().equals(anciens.get(attribut.getKey()))) {
+                    index.computeIfAbsent(attribut.getKey(), a -> new HashMap<>())
+                            .computeIfAbsent(attribut.getValue(), v -> new HashSet<>())
+                            .add(evenement.getId());
+                }
+            }
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    void retirer(String id) {
+        verrou.writeLock().lock();
+        try {
+            Entree ancienne = entrees.remove(id);
+            if (ancienne != null) {
+                ancienne.attributs().forEach((attribut, valeur) -> retirerValeur(id, attribut, valeur));
+            }
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    void vider() {
+        verrou.writeLock().lock();
+        try {
+            index.clear();
+            entrees.clear();
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    //Retourne les événements satisfaisant tous les critères (égalité sans accents ni casse)
+    Map<String, Evenement> rechercher(Map<String, String> criteres) {
+        Map<String, Evenement> resultats = new HashMap<>();
+        verrou.readLock().lock();
+        try {
+            List<Set<String>> ensembles = new ArrayList<>();
+            for (Map.Entry<String, String> critere : criteres.entrySet()) {
+                Map<String, Set<String>> valeurs = index.get(critere.getKey());
+                Set<String> ids = valeurs != null
+                        ? valeurs.get(TexteUtils.normaliserPourRecherche(critere.getValue()))
+                        : null;
+                if (ids == null) {
+                    return resultats;
+                }
+                ensembles.add(ids);
+            }
+            if (ensembles.isEmpty()) {
+                return resultats;
+            }
+            ensembles.sort((a, b) -> Integer.compare(a.size(), b.size()));
+
+            for (String id : ensembles.get(0)) {
+                boolean retenu = true;
+                for (int i = 1; i < ensembles.size() && retenu; i++) {
+                    retenu = ensembles.get(i).contains(id);
+                }
+                if (retenu) {
+                    resultats.put(id, entrees.get(id).evenement());
+                }
+            }
+            return resultats;
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    private void retirerValeur(String id, String attribut, String valeur) {
+        Map<String, Set<String>> valeurs = index.get(attribut);
+        if (valeurs == null) {
+            return;
+        }
+        Set<String> ids = valeurs.get(valeur);
+        if (ids != null) {
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                valeurs.remove(valeur);
+            }
+        }
+    }
+
+    // Les valeurs absentes (null) ne sont pas indexées
+    private static Map<String, String> normaliser(Map<String, String> attributs) {
+        Map<String, String> normalises = new HashMap<>();
+        attributs.forEach((attribut, valeur) -> {
+            if (valeur != null) {
+                normalises.put(attribut, TexteUtils.normaliserPourRecherche(valeur));
+            }
+        });
+        return normalises;
+    }
+
+    private record Entree(Evenement evenement, Map<String, String> attributs) {
+    }
+}
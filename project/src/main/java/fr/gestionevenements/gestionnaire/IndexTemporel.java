@@ -0,0 +1,134 @@
+package fr.gestionevenements.gestionnaire;
+
+import fr.gestionevenements.modele.Evenement;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Index trié des événements par date.
+ * Les requêtes par intervalle descendent dans l'arbre en O(log n) puis parcourent uniquement
+ * les k événements retournés. Les événements sans date ne sont pas indexés.
+ */
+class IndexTemporel {
+    private final NavigableMap<LocalDateTime, Map<String, Evenement>> parDate = new TreeMap<>();
+    private final Map<String, LocalDateTime> datesIndexees = new HashMap<>();
+    private final ReentrantReadWriteLock verrou = new ReentrantReadWriteLock();
+
+    //Indexe (ou réindexe après un changement de date) un événement
+    void indexer(Evenement evenement) {
+        indexer(evenement, null);
+    }
+
+    //Réindexe après une modification, sauf si l'événement n'est plus celui du store (supprimé entre-temps)
+    void reindexer(Evenement evenement, EvenementStore store) {
+        indexer(evenement, store);
+    }
+
+    private void indexer(Evenement evenement, EvenementStore store) {
+        verrou.writeLock().lock();
+        try {
+            if (store != null && store.rechercher(evenement.getId()) != evenement) {
+                return;
+            }
+            // Lue sous le verrou : deux réindexations concurrentes ne peuvent pas enregistrer une ancienne date
+            LocalDateTime date = evenement.getDate();
+            LocalDateTime ancienne = datesIndexees.remove(evenement.getId());
+            if (ancienne != null) {
+                retirerDuCreneau(evenement.getId(), ancienne);
+            }
+            if (date != null) {
+                datesIndexees.put(evenement.getId(), date);
+                parDate.computeIfAbsent(date, d -> new LinkedHashMap<>()).put(evenement.getId(), evenement);
+            }
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    void retirer(String id) {
+        verrou.writeLock().lock();
+        try {
+            LocalDateTime ancienne = datesIndexees.remove(id);
+            if (ancienne != null) {
+                retirerDuCreneau(id, ancienne);
+            }
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    void vider() {
+        verrou.writeLock().lock();
+        try {
+            parDate.clear();
+            datesIndexees.clear();
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    //Événements dont la date est comprise entre debut et fin (bornes incluses)
+    List<Evenement> entre(LocalDateTime debut, LocalDateTime fin) {
+        verrou.readLock().lock();
+        try {
+            if (debut.isAfter(fin)) {
+                return new ArrayList<>();
+            }
+            return aplatir(parDate.subMap(debut, true, fin, true).values(), Integer.MAX_VALUE);
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    //Événements strictement antérieurs à la date donnée
+    List<Evenement> avant(LocalDateTime date) {
+        verrou.readLock().lock();
+        try {
+            return aplatir(parDate.headMap(date, false).values(), Integer.MAX_VALUE);
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    //Événements strictement postérieurs à la date donnée, au plus nombre résultats
+    List<Evenement> apres(LocalDateTime date, int nombre) {
+        verrou.readLock().lock();
+        try {
+            return aplatir(parDate.tailMap(date, false).values(), nombre);
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    private static List<Evenement> aplatir(Collection<Map<String, Evenement>> creneaux, int limite) {
+        List<Evenement> resultats = new ArrayList<>();
+        for (Map<String, Evenement> creneau : creneaux) {
+            for (Evenement evenement : creneau.values()) {
+                if (resultats.size() >= limite) {
+                    return resultats;
+                }
+                resultats.add(evenement);
+            }
+        }
+        return resultats;
+    }
+
+    private void retirerDuCreneau(String id, LocalDateTime date) {
+        Map<String, Evenement> creneau = parDate.get(date);
+        if (creneau != null) {
+            creneau.remove(id);
+            if (creneau.isEmpty()) {
+                parDate.remove(date);
+            }
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package fr.gestionevenements.gestionnaire;
+
+import fr.gestionevenements.modele.Evenement;
+import fr.gestionevenements.utils.TexteUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Index inversé de trigrammes sur les clés de recherche des événements (noms sans accents, en minuscules).
+ * Une recherche par sous-chaîne intersecte les listes de postings des trigrammes de la requête
+ * (en commençant par la plus courte), puis vérifie les candidats restants.
+ * Les requêtes de moins de trois caractères sont résolues par un parcours des clés indexées.
+ */
+class IndexTrigrammes {
+    private static final int N = 3;
+
+    private final Map<String, Set<String>> postings = new HashMap<>();
+    private final Map<String, Entree> entrees = new HashMap<>();
+    private final ReentrantReadWriteLock verrou = new ReentrantReadWriteLock();
+
+    //Indexe (ou réindexe après un changement de nom) un événement
+    void indexer(Evenement evenement) {
+        indexer(evenement, null);
+    }
+
+    //Réindexe après une modification, sauf si l'événement n'est plus celui du store (supprimé entre-temps)
+    void reindexer(Evenement evenement, EvenementStore store) {
+        indexer(evenement, store);
+    }
+
+    private void indexer(Evenement evenement, EvenementStore store) {
+        verrou.writeLock().lock();
+        try {
+            if (store != null && store.rechercher(evenement.getId()) != evenement) {
+                return;
+            }
+            // Lue sous le verrou : deux réindexations concurrentes ne peuvent pas enregistrer un ancien nom
+            String cle = evenement.getCleRecherche();
+            Entree ancienne = entrees.put(evenement.getId(), new Entree(evenement, cle));
+            if (ancienne != null) {
+                if (ancienne.cle().equals(cle)) {
+                    return;
+                }
+                retirerPostings(evenement.getId(), ancienne.cle());
+            }
+            for (String trigramme : trigrammes(cle)) {
+                postings.computeIfAbsent(trigramme, t -> new HashSet<>()).add(evenement.getId());
+            }
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    void retirer(String id) {
+        verrou.writeLock().lock();
+        try {
+            Entree ancienne = entrees.remove(id);
+            if (ancienne != null) {
+                retirerPostings(id, ancienne.cle());
+            }
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    void vider() {
+        verrou.writeLock().lock();
+        try {
+            postings.clear();
+            entrees.clear();
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    //Retourne les événements dont le nom contient la requête
+    Map<String, Evenement> rechercher(String requete) {
+        String cle = TexteUtils.normaliserPourRecherche(requete);
+        Map<String, Evenement> resultats = new HashMap<>();
+        verrou.readLock().lock();
+        try {
+            if (cle.length() < N) {
+                for (Entree entree : entrees.values()) {
+                    if (entree.cle().contains(cle)) {
+                        resultats.put(entree.evenement().getId(), entree.evenement());
+                    }
+                }
+                return resultats;
+            }
+
+            List<Set<String>> listes = new ArrayList<>();
+            for (String trigramme : trigrammes(cle)) {
+                Set<String> liste = postings.get(trigramme);
+                if (liste == null) {
+                    return resultats;
+                }
+                listes.add(liste);
+            }
+            listes.sort((a, b) -> Integer.compare(a.size(), b.size()));
+
+            Set<String> plusCourte = listes.get(0);
+            for (String id : plusCourte) {
+                if (!presentDansToutes(id, listes)) {
+                    continue;
+                }
+                // Les trigrammes ne garantissent pas leur ordre : vérification finale sur la clé
+                Entree entree = entrees.get(id);
+                if (entree.cle().contains(cle)) {
+                    resultats.put(id, entree.evenement());
+                }
+            }
+            return resultats;
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    private static boolean presentDansToutes(String id, List<Set<String>> listes) {
+        for (int i = 1; i < listes.size(); i++) {
+            if (!listes.get(i).contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void retirerPostings(String id, String cle) {
+        for (String trigramme : trigrammes(cle)) {
+            Set<String> liste = postings.get(trigramme);
+            if (liste != null) {
+                liste.remove(id);
+                if (liste.isEmpty()) {
+                    postings.remove(trigramme);
+                }
+            }
+        }
+    }
+
+    private static Set<String> trigrammes(String cle) {
+        Set<String> trigrammes = new HashSet<>();
+        for (int i = 0; i + N <= cle.length(); i++) {
+            trigrammes.add(cle.substring(i, i + N));
+        }
+        return trigrammes;
+    }
+
+    private record Entree(Evenement evenement, String cle) {
+    }
+}
@@ -0,0 +1,325 @@
+package fr.gestionevenements.gestionnaire;
+
+import fr.gestionevenements.modele.Evenement;
+import fr.gestionevenements.serialisation.FichierEvenementsMappe;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Store d'événements adossé à un fichier binaire projeté en mémoire, pour les catalogues surtout consultés.
+ * Les événements du fichier ne sont décodés qu'au premier accès puis conservés (les modifications faites
+ * sur un événement déjà obtenu sont donc préservées) ; les ajouts et suppressions sont tenus en mémoire
+ * par-dessus le fichier, qui n'est jamais modifié.
+ * Les lectures d'événements déjà décodés se font sans verrou ; les écritures sont sérialisées.
+ */
+public class MappedEvenementStore implements EvenementStore {
+    private final Object verrou = new Object();
+    private final AtomicLong version = new AtomicLong();
+    // Événements présents en mémoire : décodés depuis le fichier ou ajoutés depuis l'ouverture
+    private final Map<String, Evenement> residents = new ConcurrentHashMap<>();
+    // IDs du fichier supprimés depuis l'ouverture
+    private final Set<String> supprimes = ConcurrentHashMap.newKeySet();
+    private volatile FichierEvenementsMappe fichier;
+    private volatile int taille;
+    private volatile Instantane instantane = new Instantane(-1, Map.of());
+
+    public MappedEvenementStore(FichierEvenementsMappe fichier) {
+        if (fichier == null) {
+            throw new IllegalArgumentException("Le fichier d'événements ne peut pas être null");
+        }
+        this.fichier = fichier;
+        this.taille = fichier.taille();
+    }
+
+    //Ouvre un fichier écrit par la stratégie binaire, sans décoder ses événements
+    public static MappedEvenementStore ouvrir(Path chemin) throws IOException {
+        return new MappedEvenementStore(FichierEvenementsMappe.ouvrir(chemin));
+    }
+
+    @Override
+    public boolean ajouterSiAbsent(Evenement evenement) {
+        synchronized (verrou) {
+            if (rechercher(evenement.getId()) != null) {
+                return false;
+            }
+            residents.put(evenement.getId(), evenement);
+            supprimes.remove(evenement.getId());
+            taille++;
+            version.incrementAndGet();
+            return true;
+        }
+    }
+
+    @Override
+    public Evenement supprimer(String id) {
+        synchronized (verrou) {
+            Evenement supprime = rechercher(id);
+            if (supprime == null) {
+                return null;
+            }
+            residents.remove(id);
+            FichierEvenementsMappe courant = fichier;
+            if (courant != null && courant.contient(id)) {
+                supprimes.add(id);
+            }
+            taille--;
+            version.incrementAndGet();
+            return supprime;
+        }
+    }
+
+    @Override
+    public Evenement rechercher(String id) {
+        Evenement evenement = residents.get(id);
+        if (evenement != null) {
+            return evenement;
+        }
+        FichierEvenementsMappe courant = fichier;
+        if (courant == null || supprimes.contains(id)) {
+            return null;
+        }
+        Evenement decode = decoder(courant, id);
+        if (decode == null) {
+            return null;
+        }
+        // Le décodage se fait hors verrou ; l'insertion vérifie qu'aucune écriture ne l'a rendu obsolète
+        synchronized (verrou) {
+            Evenement existant = residents.get(id);
+            if (existant != null) {
+                return existant;
+            }
+            if (fichier != courant || supprimes.contains(id)) {
+                return null;
+            }
+            residents.put(id, decode);
+            return decode;
+        }
+    }
+
+    @Override
+    public void parcourir(Consumer<Evenement> action) {
+        FichierEvenementsMappe courant = fichier;
+        if (courant != null) {
+            try {
+                courant.parcourirIdentifiants(id -> {
+                    Evenement evenement = rechercher(id);
+                    if (evenement != null) {
+                        action.accept(evenement);
+                    }
+                });
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        for (Evenement evenement : residents.values()) {
+            if (courant == null || !courant.contient(evenement.getId())) {
+                action.accept(evenement);
+            }
+        }
+    }
+
+    @Override
+    public Map<String, Evenement> instantane() {
+        Instantane courant = instantane;
+        if (courant.version() == version.get()) {
+            return courant.evenements();
+        }
+        synchronized (verrou) {
+            long versionCourante = version.get();
+            courant = instantane;
+            if (courant.version() != versionCourante) {
+                FichierEvenementsMappe source = fichier;
+                Map<String, Evenement> horsFichier = new HashMap<>();
+                Map<String, Evenement> decodes = new ConcurrentHashMap<>();
+                for (Evenement evenement : residents.values()) {
+                    if (source == null || !source.contient(evenement.getId())) {
+                        horsFichier.put(evenement.getId(), evenement);
+                    } else {
+                        decodes.put(evenement.getId(), evenement);
+                    }
+                }
+                courant = new Instantane(versionCourante,
+                        new VueInstantanee(source, Set.copyOf(supprimes), horsFichier, decodes, taille));
+                instantane = courant;
+            }
+            return courant.evenements();
+        }
+    }
+
+    @Override
+    public long version() {
+        return version.get();
+    }
+
+    @Override
+    public void remplacerTout(Map<String, Evenement> evenements) {
+        synchronized (verrou) {
+            fichier = null;
+            supprimes.clear();
+            residents.clear();
+            residents.putAll(evenements);
+            taille = residents.size();
+            version.incrementAndGet();
+        }
+    }
+
+    @Override
+    public int taille() {
+        return taille;
+    }
+
+    //Fichier projeté encore utilisé par le store, ou null s'il a été détaché
+    public Path getFichier() {
+        FichierEvenementsMappe courant = fichier;
+        return courant == null ? null : courant.getChemin();
+    }
+
+    //Nombre d'événements actuellement en mémoire (décodés ou ajoutés)
+    public int nombreEvenementsResidents() {
+        return residents.size();
+    }
+
+    /**
+     * Décode tous les événements restants puis cesse d'utiliser le fichier projeté : une nouvelle sauvegarde
+     * peut alors être écrite au même emplacement (fichier temporaire renommé, voir EcritureAtomique).
+     * <p>
+     * La projection elle-même n'est pas libérée : Java ne permet pas de démapper un MappedByteBuffer, qui reste
+     * valide tant que le fichier projeté (ou une vue instantanée prise avant le détachement) est référencé.
+     * Sous Linux et macOS le renommage remplace l'entrée du répertoire et l'ancien contenu reste lisible par la
+     * projection ; sous Windows, remplacer un fichier encore projeté échoue jusqu'au passage du ramasse-miettes.
+     */
+    public void detacher() {
+        synchronized (verrou) {
+            FichierEvenementsMappe courant = fichier;
+            if (courant == null) {
+                return;
+            }
+            List<Evenement> tous = new ArrayList<>(taille);
+            parcourir(tous::add);
+            residents.clear();
+            for (Evenement evenement : tous) {
+                residents.put(evenement.getId(), evenement);
+            }
+            supprimes.clear();
+            fichier = null;
+            version.incrementAndGet();
+        }
+    }
+
+    private static Evenement decoder(FichierEvenementsMappe source, String id) {
+        try {
+            return source.lire(id);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible de décoder l'événement " + id, e);
+        }
+    }
+
+    private record Instantane(long version, Map<String, Evenement> evenements) {
+    }
+
+    /*
+     * Vue immuable du store à une version donnée : l'appartenance est figée, les événements du fichier
+     * sont obtenus (et décodés si besoin) seulement lorsqu'ils sont lus. Les événements déjà en mémoire à la prise
+     * de la vue y sont capturés, et chaque événement lu ensuite y est conservé : une même vue retourne toujours
+     * la même instance, même pour un événement supprimé du store depuis.
+     */
+    private final class VueInstantanee extends AbstractMap<String, Evenement> {
+        private final FichierEvenementsMappe source;
+        private final Set<String> supprimesFiges;
+        private final Map<String, Evenement> horsFichier;
+        private final Map<String, Evenement> decodes;
+        private final int tailleFigee;
+
+        private VueInstantanee(FichierEvenementsMappe source, Set<String> supprimesFiges,
+                               Map<String, Evenement> horsFichier, Map<String, Evenement> decodes, int tailleFigee) {
+            this.source = source;
+            this.supprimesFiges = supprimesFiges;
+            this.horsFichier = horsFichier;
+            this.decodes = decodes;
+            this.tailleFigee = tailleFigee;
+        }
+
+        @Override
+        public Evenement get(Object cle) {
+            if (!(cle instanceof String id)) {
+                return null;
+            }
+            Evenement evenement = horsFichier.get(id);
+            if (evenement != null || source == null || supprimesFiges.contains(id) || !source.contient(id)) {
+                return evenement;
+            }
+            // Instance du store si l'événement y est encore, sinon (supprimé depuis) relue une fois dans le fichier
+            return decodes.computeIfAbsent(id, i -> {
+                Evenement resident = rechercher(i);
+                return resident != null ? resident : decoder(source, i);
+            });
+        }
+
+        @Override
+        public boolean containsKey(Object cle) {
+            if (!(cle instanceof String id)) {
+                return false;
+            }
+            return horsFichier.containsKey(id)
+                    || (source != null && !supprimesFiges.contains(id) && source.contient(id));
+        }
+
+        @Override
+        public int size() {
+            return tailleFigee;
+        }
+
+        @Override
+        public Set<Entry<String, Evenement>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, Evenement>> iterator() {
+                    List<String> ids = new ArrayList<>(tailleFigee);
+                    if (source != null) {
+                        try {
+                            source.parcourirIdentifiants(id -> {
+                                if (!supprimesFiges.contains(id)) {
+                                    ids.add(id);
+                                }
+                            });
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }
+                    ids.addAll(horsFichier.keySet());
+                    Iterator<String> identifiants = ids.iterator();
+                    return new Iterator<>() {
+                        @Override
+                        public boolean hasNext() {
+                            return identifiants.hasNext();
+                        }
+
+                        @Override
+                        public Entry<String, Evenement> next() {
+                            String id = identifiants.next();
+                            return new SimpleImmutableEntry<>(id, get(id));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return tailleFigee;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package fr.gestionevenements.gestionnaire;
+
+import fr.gestionevenements.modele.Evenement;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+//Règle de répartition des événements entre les fichiers (segments) d'une sauvegarde partitionnée.
+public interface PartitionnementSegments {
+
+    //Nom du segment auquel appartient l'événement (utilisé dans le nom de fichier segment-<nom>.dat)
+    String segmentPour(Evenement evenement);
+
+    //Segments existant quel que soit le contenu (réécrits, ou supprimés s'ils sont vides, à chaque sauvegarde complète)
+    default List<String> segmentsFixes() {
+        return List.of();
+    }
+
+    //Description enregistrée dans le manifeste : un changement de règle impose de réécrire tous les segments
+    String description();
+
+    //Répartition uniforme par hachage de l'ID sur un nombre fixe de segments
+    static PartitionnementSegments parIdentifiant(int nombreSegments) {
+        return new ParIdentifiant(nombreSegments);
+    }
+
+    //Un segment par mois de la date de l'événement (les événements sans date sont regroupés)
+    static PartitionnementSegments parMois() {
+        return new ParMois();
+    }
+
+    record ParIdentifiant(int nombreSegments) implements PartitionnementSegments {
+        public ParIdentifiant {
+            if (nombreSegments <= 0) {
+                throw new IllegalArgumentException("Le nombre de segments doit être positif");
+            }
+        }
+
+        @Override
+        public String segmentPour(Evenement evenement) {
+            int h = evenement.getId().hashCode();
+            h ^= (h >>> 16);
+            return nomSegment(Math.floorMod(h, nombreSegments));
+        }
+
+        @Override
+        public List<String> segmentsFixes() {
+            List<String> segments = new ArrayList<>(nombreSegments);
+            for (int segment = 0; segment < nombreSegments; segment++) {
+                segments.add(nomSegment(segment));
+            }
+            return segments;
+        }
+
+        private static String nomSegment(int segment) {
+            return String.format("%03d", segment);
+        }
+
+        @Override
+        public String description() {
+            return "identifiant:" + nombreSegments;
+        }
+    }
+
+    record ParMois() implements PartitionnementSegments {
+        @Override
+        public String segmentPour(Evenement evenement) {
+            return evenement.getDate() == null ? "sans-date" : YearMonth.from(evenement.getDate()).toString();
+        }
+
+        @Override
+        public String description() {
+            return "mois";
+        }
+    }
+}
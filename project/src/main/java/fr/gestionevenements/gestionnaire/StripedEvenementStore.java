@@ -0,0 +1,188 @@
+package fr.gestionevenements.gestionnaire;
+
+import fr.gestionevenements.modele.Evenement;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Store d'événements concurrent découpé en segments.
+ * Chaque segment possède sa propre table et son propre verrou lecture/écriture :
+ * les opérations sur des IDs différents s'exécutent en parallèle, et les opérations
+ * globales (instantané, remplacement) verrouillent les segments dans l'ordre pour rester cohérentes.
+ * L'instantané immuable n'est reconstruit qu'après une modification : tant que la version
+ * ne change pas, tous les lecteurs partagent la même vue sans copie.
+ */
+public class StripedEvenementStore implements EvenementStore {
+    private final Segment[] segments;
+    private final int masque;
+    private final AtomicLong version = new AtomicLong();
+    private volatile Instantane instantane = new Instantane(0, Collections.emptyMap());
+
+    public StripedEvenementStore() {
+        this(4 * Runtime.getRuntime().availableProcessors());
+    }
+
+    public StripedEvenementStore(int nombreSegments) {
+        if (nombreSegments <= 0) {
+            throw new IllegalArgumentException("Le nombre de segments doit être positif");
+        }
+        // Arrondi à la puissance de deux supérieure pour sélectionner le segment par masque
+        int taille = Integer.highestOneBit(nombreSegments);
+        if (taille < nombreSegments) {
+            taille <<= 1;
+        }
+        this.segments = new Segment[taille];
+        for (int i = 0; i < taille; i++) {
+            segments[i] = new Segment();
+        }
+        this.masque = taille - 1;
+    }
+
+    @Override
+    public boolean ajouterSiAbsent(Evenement evenement) {
+        Segment segment = segmentPour(evenement.getId());
+        segment.verrou.writeLock().lock();
+        try {
+            if (segment.evenements.putIfAbsent(evenement.getId(), evenement) != null) {
+                return false;
+            }
+            version.incrementAndGet();
+            return true;
+        } finally {
+            segment.verrou.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Evenement supprimer(String id) {
+        Segment segment = segmentPour(id);
+        segment.verrou.writeLock().lock();
+        try {
+            Evenement supprime = segment.evenements.remove(id);
+            if (supprime != null) {
+                version.incrementAndGet();
+            }
+            return supprime;
+        } finally {
+            segment.verrou.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Evenement rechercher(String id) {
+        Segment segment = segmentPour(id);
+        segment.verrou.readLock().lock();
+        try {
+            return segment.evenements.get(id);
+        } finally {
+            segment.verrou.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void parcourir(Consumer<Evenement> action) {
+        // Parcours segment par segment : l'action ne doit pas modifier le store
+        for (Segment segment : segments) {
+            segment.verrou.readLock().lock();
+            try {
+                segment.evenements.values().forEach(action);
+            } finally {
+                segment.verrou.readLock().unlock();
+            }
+        }
+    }
+
+    @Override
+    public Map<String, Evenement> instantane() {
+        Instantane courant = instantane;
+        if (courant.version() == version.get()) {
+            return courant.evenements();
+        }
+        verrouillerTout(false);
+        try {
+            // Aucun écrivain ne peut modifier le store tant que tous les segments sont verrouillés
+            long versionCourante = version.get();
+            courant = instantane;
+            if (courant.version() == versionCourante) {
+                return courant.evenements();
+            }
+            Map<String, Evenement> copie = new HashMap<>();
+            for (Segment segment : segments) {
+                copie.putAll(segment.evenements);
+            }
+            courant = new Instantane(versionCourante, Collections.unmodifiableMap(copie));
+            instantane = courant;
+            return courant.evenements();
+        } finally {
+            deverrouillerTout(false);
+        }
+    }
+
+    @Override
+    public long version() {
+        return version.get();
+    }
+
+    @Override
+    public void remplacerTout(Map<String, Evenement> evenements) {
+        verrouillerTout(true);
+        try {
+            for (Segment segment : segments) {
+                segment.evenements.clear();
+            }
+            for (Map.Entry<String, Evenement> entree : evenements.entrySet()) {
+                segmentPour(entree.getKey()).evenements.put(entree.getKey(), entree.getValue());
+            }
+            version.incrementAndGet();
+        } finally {
+            deverrouillerTout(true);
+        }
+    }
+
+    @Override
+    public int taille() {
+        int taille = 0;
+        for (Segment segment : segments) {
+            segment.verrou.readLock().lock();
+            try {
+                taille += segment.evenements.size();
+            } finally {
+                segment.verrou.readLock().unlock();
+            }
+        }
+        return taille;
+    }
+
+    private Segment segmentPour(String id) {
+        int h = id.hashCode();
+        // Dispersion des bits de poids fort comme dans HashMap
+        h ^= (h >>> 16);
+        return segments[h & masque];
+    }
+
+    // Les verrous sont toujours pris dans le même ordre pour éviter les interblocages
+    private void verrouillerTout(boolean ecriture) {
+        for (Segment segment : segments) {
+            (ecriture ? segment.verrou.writeLock() : segment.verrou.readLock()).lock();
+        }
+    }
+
+    private void deverrouillerTout(boolean ecriture) {
+        for (int i = segments.length - 1; i >= 0; i--) {
+            (ecriture ? segments[i].verrou.writeLock() : segments[i].verrou.readLock()).unlock();
+        }
+    }
+
+    private record Instantane(long version, Map<String, Evenement> evenements) {
+    }
+
+    private static final class Segment {
+        private final Map<String, Evenement> evenements = new HashMap<>();
+        private final ReentrantReadWriteLock verrou = new ReentrantReadWriteLock();
+    }
+}
@@ -0,0 +1,128 @@
+package fr.gestionevenements.gestionnaire;
+
+import fr.gestionevenements.modele.Evenement;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Répartition des événements en segments de sauvegarde et suivi des segments modifiés.
+ * Le segment d'un événement est donné par le partitionnement ; il est recalculé à chaque modification
+ * (un changement de date peut déplacer l'événement d'un segment mensuel à un autre, les deux sont alors marqués).
+ * Seuls les segments marqués sont réécrits à la sauvegarde suivante.
+ * Le marquage d'un segment dont la composition ne change pas (cas courant : attribut modifié, inscription)
+ * ne prend aucun verrou ; seuls les déplacements et les opérations globales sont synchronisés.
+ */
+class SuiviSegments {
+    private volatile PartitionnementSegments partitionnement;
+    private final Map<String, Set<String>> membres = new HashMap<>();
+    private final Map<String, String> segmentParEvenement = new ConcurrentHashMap<>();
+    private final Set<String> modifies = ConcurrentHashMap.newKeySet();
+    // Vrai lorsque tous les segments doivent être réécrits (catalogue remplacé, partitionnement changé)
+    private volatile boolean toutModifie = true;
+
+    SuiviSegments(PartitionnementSegments partitionnement) {
+        this.partitionnement = partitionnement;
+    }
+
+    synchronized PartitionnementSegments getPartitionnement() {
+        return partitionnement;
+    }
+
+    //Place l'événement dans son segment et marque les segments concernés (événement présent dans le store)
+    synchronized void placer(Evenement evenement) {
+        deplacer(evenement, partitionnement.segmentPour(evenement));
+    }
+
+    //Replace l'événement après une modification, sauf s'il a été retiré du store entre-temps
+    void replacer(Evenement evenement, EvenementStore store) {
+        PartitionnementSegments courant = partitionnement;
+        String segment = courant.segmentPour(evenement);
+        if (segment.equals(segmentParEvenement.get(evenement.getId()))) {
+            modifies.add(segment);
+            return;
+        }
+        synchronized (this) {
+            // Vérifié sous le verrou : retirer, appelé après la suppression du store, ne peut pas être devancé
+            if (store.rechercher(evenement.getId()) != evenement) {
+                return;
+            }
+            deplacer(evenement, partitionnement == courant ? segment : partitionnement.segmentPour(evenement));
+        }
+    }
+
+    //Marque le segment d'un événement déjà placé dont la composition ne change pas (inscription)
+    void marquer(String id) {
+        String segment = segmentParEvenement.get(id);
+        if (segment != null) {
+            modifies.add(segment);
+        }
+    }
+
+    private void deplacer(Evenement evenement, String segment) {
+        String ancien = segmentParEvenement.put(evenement.getId(), segment);
+        if (ancien != null && !ancien.equals(segment)) {
+            membres.get(ancien).remove(evenement.getId());
+            modifies.add(ancien);
+        }
+        membres.computeIfAbsent(segment, s -> new HashSet<>()).add(evenement.getId());
+        modifies.add(segment);
+    }
+
+    synchronized void retirer(String id) {
+        String segment = segmentParEvenement.remove(id);
+        if (segment != null) {
+            membres.get(segment).remove(id);
+            modifies.add(segment);
+        }
+    }
+
+    synchronized void marquerTout() {
+        toutModifie = true;
+    }
+
+    //Oublie tous les événements ; un nouveau partitionnement peut être fourni
+    synchronized void vider(PartitionnementSegments nouveauPartitionnement) {
+        partitionnement = nouveauPartitionnement;
+        membres.clear();
+        segmentParEvenement.clear();
+        modifies.clear();
+        toutModifie = true;
+    }
+
+    //Retire les segments modifiés du suivi et les retourne : une modification ultérieure les marquera de nouveau
+    synchronized Modifies prendreModifies() {
+        Modifies pris = new Modifies(toutModifie ? new HashSet<>(membres.keySet()) : new HashSet<>(), toutModifie);
+        if (toutModifie) {
+            pris.segments().addAll(partitionnement.segmentsFixes());
+        }
+        // Retrait un par un : un segment marqué pendant le parcours reste pour la sauvegarde suivante
+        for (String segment : modifies) {
+            if (modifies.remove(segment)) {
+                pris.segments().add(segment);
+            }
+        }
+        toutModifie = false;
+        return pris;
+    }
+
+    //Remet des segments dans le suivi (sauvegarde échouée)
+    synchronized void remarquer(Modifies pris) {
+        modifies.addAll(pris.segments());
+        toutModifie |= pris.complet();
+    }
+
+    synchronized List<String> membres(String segment) {
+        Set<String> ids = membres.get(segment);
+        return ids == null ? List.of() : new ArrayList<>(ids);
+    }
+
+    //Segments à réécrire ; complet indique que tout le répertoire doit correspondre à ces segments
+    record Modifies(Set<String> segments, boolean complet) {
+    }
+}
@@ -7,10 +7,15 @@ import com.fasterxml.jackson.annotation.JsonTypeName;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Observer;
 
 public class Concert extends Evenement {
+    public static final String ATTRIBUT_ARTISTE = "artiste";
+    public static final String ATTRIBUT_GENRE_MUSICAL = "genreMusical";
+
     private List<Observer> observers = new ArrayList<>();
     private String nom;
     @JsonProperty("artiste")
@@ -38,6 +43,35 @@ public class Concert extends Evenement {
         return details.toString();
     }
     
+    @Override
+    protected void declarerAttributsIndexables(Map<String, String> attributs) {
+        super.declarerAttributsIndexables(attributs);
+        attributs.put(ATTRIBUT_TYPE, "Concert");
+        attributs.put(ATTRIBUT_ARTISTE, artiste);
+        attributs.put(ATTRIBUT_GENRE_MUSICAL, genreMusical);
+    }
+    
+    @Override
+    public List<String> valeurAttribut(String attribut) {
+        return switch (attribut) {
+            case ATTRIBUT_ARTISTE -> Collections.singletonList(artiste);
+            case ATTRIBUT_GENRE_MUSICAL -> Collections.singletonList(genreMusical);
+            default -> super.valeurAttribut(attribut);
+        };
+    }
+
+    @Override
+    public boolean restaurerAttribut(String attribut, List<String> valeur) {
+        switch (attribut) {
+            case ATTRIBUT_ARTISTE -> this.artiste = valeur.get(0);
+            case ATTRIBUT_GENRE_MUSICAL -> this.genreMusical = valeur.get(0);
+            default -> {
+                return super.restaurerAttribut(attribut, valeur);
+            }
+        }
+        return true;
+    }
+
     // Getters et Setters spécifiques au concert
     public String getArtiste() {
         return artiste;
@@ -45,6 +79,7 @@ public class Concert extends Evenement {
     
     public void setArtiste(String artiste) {
         this.artiste = artiste;
+        signalerModification(ATTRIBUT_ARTISTE);
         notifierObservateurs("L'artiste du concert a été modifié: " + artiste);
     }
     
@@ -54,6 +89,7 @@ public class Concert extends Evenement {
     
     public void setGenreMusical(String genreMusical) {
         this.genreMusical = genreMusical;
+        signalerModification(ATTRIBUT_GENRE_MUSICAL);
         notifierObservateurs("Le genre musical du concert a été modifié: " + genreMusical);
     }
 }
\ No newline at end of file
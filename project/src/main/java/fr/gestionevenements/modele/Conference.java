@@ -6,9 +6,14 @@ import com.fasterxml.jackson.annotation.JsonTypeName;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 public class Conference extends Evenement {
+    public static final String ATTRIBUT_THEME = "theme";
+    public static final String ATTRIBUT_INTERVENANTS = "intervenants";
+
     @JsonProperty("theme")
     private String theme;
     @JsonProperty("intervenants")
@@ -27,6 +32,7 @@ public class Conference extends Evenement {
 
     public void ajouterIntervenant(String intervenant) {
         intervenants.add(intervenant);
+        signalerModification(ATTRIBUT_INTERVENANTS);
         notifierObservateurs("Un nouvel intervenant a été ajouté à la conférence " +  ": " + intervenant);
     }
     
@@ -45,6 +51,34 @@ public class Conference extends Evenement {
         return details.toString();
     }
     
+    @Override
+    protected void declarerAttributsIndexables(Map<String, String> attributs) {
+        super.declarerAttributsIndexables(attributs);
+        attributs.put(ATTRIBUT_TYPE, "Conference");
+        attributs.put(ATTRIBUT_THEME, theme);
+    }
+    
+    @Override
+    public List<String> valeurAttribut(String attribut) {
+        return switch (attribut) {
+            case ATTRIBUT_THEME -> Collections.singletonList(theme);
+            case ATTRIBUT_INTERVENANTS -> new ArrayList<>(intervenants);
+            default -> super.valeurAttribut(attribut);
+        };
+    }
+
+    @Override
+    public boolean restaurerAttribut(String attribut, List<String> valeur) {
+        switch (attribut) {
+            case ATTRIBUT_THEME -> this.theme = valeur.get(0);
+            case ATTRIBUT_INTERVENANTS -> this.intervenants = new ArrayList<>(valeur);
+            default -> {
+                return super.restaurerAttribut(attribut, valeur);
+            }
+        }
+        return true;
+    }
+
     // Getters et Setters spécifiques à la conférence
     public String getTheme() {
         return theme;
@@ -52,6 +86,7 @@ public class Conference extends Evenement {
     
     public void setTheme(String theme) {
         this.theme = theme;
+        signalerModification(ATTRIBUT_THEME);
         notifierObservateurs("Le thème de la conférence a été modifié: " + theme);
     }
     
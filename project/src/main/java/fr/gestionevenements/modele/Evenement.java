@@ -1,14 +1,29 @@
 package fr.gestionevenements.modele;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonSubTypes;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import fr.gestionevenements.service.DispatcheurNotifications;
+import fr.gestionevenements.utils.TexteUtils;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 // Classe Evenement (classe de base)
 @JsonTypeInfo(
@@ -18,24 +33,45 @@ import java.util.UUID;
 )
 @JsonSubTypes({
         @JsonSubTypes.Type(value = Concert.class, name = "fr.gestionevenements.modele.Concert"),
-        @JsonSubTypes.Type(value = Conference.class, name = "fr.gestionevenements.modele.Conference"),
-        @JsonSubTypes.Type(value = Participant.class, name = "fr.gestionevenements.modele.Participant")
+        @JsonSubTypes.Type(value = Conference.class, name = "fr.gestionevenements.modele.Conference")
 })
 //@JsonIgnoreProperties(ignoreUnknown = true)
 
 public abstract class Evenement implements EvenementObservable {
+    // Noms des attributs transmis aux écouteurs de modification
+    public static final String ATTRIBUT_NOM = "nom";
+    public static final String ATTRIBUT_DATE = "date";
+    public static final String ATTRIBUT_LIEU = "lieu";
+    public static final String ATTRIBUT_PARTICIPANTS = "participants";
+    public static final String ATTRIBUT_TYPE = "type";
+
+    // Nombre maximal de noms cités dans la notification d'une inscription groupée
+    private static volatile int limiteNomsResumeInscriptions = 10;
+    // Mode de distribution des notifications aux observateurs (synchrone par défaut)
+    private static volatile DispatcheurNotifications dispatcheur = DispatcheurNotifications.SYNCHRONE;
+
     private String id;
     @JsonProperty("Nom")
     private String nom;
+    // Clé de recherche normalisée, calculée à la demande et invalidée par setNom
+    private volatile CleRecherche cleRecherche;
     @JsonProperty("date")
     private LocalDateTime date;
     @JsonProperty("lieu")
     private String lieu;
     private int capaciteMax;
-    @JsonProperty(value = "participants")
-    private List<Participant> participants;
-    @JsonProperty(value = "participantObserver")
-    private List<ParticipantObserver> observers;
+    // Inscriptions concurrentes : ID du participant -> numéro d'ordre, et participants triés par ordre
+    // d'inscription (sérialisés sous forme de liste). Les places sont réservées par CAS sur placesReservees.
+    private final ConcurrentMap<String, Long> inscriptions = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Long, Participant> participants = new ConcurrentSkipListMap<>();
+    private final AtomicInteger placesReservees = new AtomicInteger();
+    private final AtomicLong sequenceInscription = new AtomicLong();
+    // Nombre maximal d'observateurs d'un événement, appliqué aux événements créés ensuite
+    private static volatile int limiteObservateurs = Integer.MAX_VALUE;
+    // Observateurs (sérialisés sous forme de liste "participantObserver", hors abonnements faibles)
+    private final RegistreObservateurs observers = new RegistreObservateurs(limiteObservateurs);
+    // Écouteurs internes (index du gestionnaire...), jamais sérialisés
+    private final List<EvenementModificationListener> ecouteursModification = new CopyOnWriteArrayList<>();
 
     public Evenement(String nom, LocalDateTime date, String lieu, int capaciteMax) {
         this.id = UUID.randomUUID().toString();
@@ -43,27 +79,155 @@ public abstract class Evenement implements EvenementObservable {
         this.date = date;
         this.lieu = lieu;
         this.capaciteMax = capaciteMax;
-        this.participants = new ArrayList<>();
-        this.observers = new ArrayList<>();
     }
 
     public Evenement() {
-        this.participants = new ArrayList<>();
     }
 
+    //Inscrit un participant ; sûr en accès concurrent, la capacité maximale n'est jamais dépassée
     public void ajouterParticipant(Participant participant) throws CapaciteMaxAtteinteException {
-        if (participants.size() >= capaciteMax) {
-            throw new CapaciteMaxAtteinteException("La capacité maximale de l'événement est atteinte");
+        // L'ID est revendiqué avant la réservation : un doublon ne bloque jamais une place
+        long ordre = sequenceInscription.incrementAndGet();
+        if (!revendiquer(participant.getId(), ordre)) {
+            throw refusInscription(participant, 1);
         }
-        
-        if (participants.contains(participant)) {
-            throw new ParticipantDejaInscritException("Le participant est déjà inscrit à cet événement");
+        try {
+            reserverPlaces(1);
+        } catch (CapaciteMaxAtteinteException e) {
+            inscriptions.remove(participant.getId(), ordre);
+            throw e;
         }
-        
-        participants.add(participant);
+
+        participants.put(ordre, participant);
+        signalerInscriptions(List.of(participant));
         notifierObservateurs("Le participant " + participant.getNom() + " a été ajouté à l'événement " + this.nom);
     }
 
+    /*
+     * Inscrit plusieurs participants en une seule opération : la capacité est vérifiée une fois,
+     * l'inscription est en tout ou rien et les observateurs reçoivent une seule notification récapitulative.
+     */
+    public void ajouterParticipants(Collection<Participant> nouveaux) throws CapaciteMaxAtteinteException {
+        if (nouveaux.isEmpty()) {
+            return;
+        }
+
+        // Numéros d'ordre attribués dans l'ordre du lot, IDs revendiqués dans l'ordre croissant :
+        // deux lots qui se croisent ne peuvent pas attendre chacun la revendication de l'autre
+        Map<Long, Participant> revendiques = new LinkedHashMap<>();
+        for (Participant participant : nouveaux) {
+            revendiques.put(sequenceInscription.incrementAndGet(), participant);
+        }
+        List<Map.Entry<Long, Participant>> parId = new ArrayList<>(revendiques.entrySet());
+        parId.sort(Map.Entry.comparingByValue(Comparator.comparing(Participant::getId)));
+        Map<Long, Participant> obtenues = new HashMap<>();
+        String precedent = null;
+        for (Map.Entry<Long, Participant> revendication : parId) {
+            String id = revendication.getValue().getId();
+            // Un ID présent deux fois dans le lot attendrait sa propre revendication
+            if (id.equals(precedent) || !revendiquer(id, revendication.getKey())) {
+                annulerRevendications(obtenues);
+                throw refusInscription(revendication.getValue(), nouveaux.size());
+            }
+            obtenues.put(revendication.getKey(), revendication.getValue());
+            precedent = id;
+        }
+        try {
+            reserverPlaces(revendiques.size());
+        } catch (CapaciteMaxAtteinteException e) {
+            annulerRevendications(revendiques);
+            throw e;
+        }
+
+        participants.putAll(revendiques);
+        signalerInscriptions(List.copyOf(revendiques.values()));
+        notifierObservateurs(resumerInscriptions(revendiques.values()));
+    }
+
+    //Définit le nombre maximal de noms cités dans la notification d'une inscription groupée
+    public static void setLimiteNomsResumeInscriptions(int limite) {
+        if (limite < 0) {
+            throw new IllegalArgumentException("La limite doit être positive");
+        }
+        limiteNomsResumeInscriptions = limite;
+    }
+
+    //Définit le mode de distribution des notifications pour tous les événements
+    public static void setDispatcheurNotifications(DispatcheurNotifications nouveauDispatcheur) {
+        if (nouveauDispatcheur == null) {
+            throw new IllegalArgumentException("Le dispatcheur de notifications ne peut pas être null");
+        }
+        dispatcheur = nouveauDispatcheur;
+    }
+
+    private String resumerInscriptions(Collection<Participant> ajoutes) {
+        StringBuilder message = new StringBuilder();
+        message.append(ajoutes.size()).append(" participant(s) ont été ajoutés à l'événement ").append(this.nom);
+        int limite = limiteNomsResumeInscriptions;
+        if (limite > 0) {
+            message.append(" : ");
+            int cites = 0;
+            for (Participant participant : ajoutes) {
+                if (cites == limite) {
+                    break;
+                }
+                message.append(cites > 0 ? ", " : "").append(participant.getNom());
+                cites++;
+            }
+            if (ajoutes.size() > cites) {
+                message.append(" et ").append(ajoutes.size() - cites).append(" autre(s)");
+            }
+        }
+        return message.toString();
+    }
+
+    /*
+     * Revendique l'ID d'un participant pour ce numéro d'ordre. Une revendication concurrente qui attend encore
+     * sa place n'est pas une inscription : son issue est attendue, et la revendication est retentée si elle a été
+     * annulée faute de place. Retourne faux si le participant est effectivement inscrit.
+     */
+    private boolean revendiquer(String id, long ordre) {
+        while (true) {
+            Long existant = inscriptions.putIfAbsent(id, ordre);
+            if (existant == null) {
+                return true;
+            }
+            // La fenêtre est courte (réservation par CAS) : une revendication confirmée n'est jamais retirée
+            while (!participants.containsKey(existant) && existant.equals(inscriptions.get(id))) {
+                Thread.yield();
+            }
+            if (participants.containsKey(existant)) {
+                return false;
+            }
+        }
+    }
+
+    // Comme pour une inscription sans doublon, l'absence de place est signalée avant le doublon
+    private RuntimeException refusInscription(Participant participant, int nombre) {
+        if (placesReservees.get() + nombre > capaciteMax) {
+            return new CapaciteMaxAtteinteException("La capacité maximale de l'événement est atteinte");
+        }
+        return new ParticipantDejaInscritException("Le participant " + participant.getNom()
+                + " est déjà inscrit à cet événement");
+    }
+
+    private void annulerRevendications(Map<Long, Participant> revendiques) {
+        revendiques.forEach((ordre, participant) -> inscriptions.remove(participant.getId(), ordre));
+    }
+
+    // Réserve des places sans verrou : la réservation n'aboutit que si la capacité n'est pas dépassée
+    private void reserverPlaces(int nombre) {
+        while (true) {
+            int reservees = placesReservees.get();
+            if (reservees + nombre > capaciteMax) {
+                throw new CapaciteMaxAtteinteException("La capacité maximale de l'événement est atteinte");
+            }
+            if (placesReservees.compareAndSet(reservees, reservees + nombre)) {
+                return;
+            }
+        }
+    }
+
     public void annuler() {
         notifierObservateurs("L'événement " + this.nom + " a été annulé");
     }
@@ -74,7 +238,7 @@ public abstract class Evenement implements EvenementObservable {
         details.append("Date: ").append(date).append("\n");
         details.append("Lieu: ").append(lieu).append("\n");
         details.append("Capacité maximale: ").append(capaciteMax).append("\n");
-        details.append("Nombre de participants: ").append(participants.size()).append("\n");
+        details.append("Nombre de participants: ").append(inscriptions.size()).append("\n");
         
         return details.toString();
     }
@@ -82,24 +246,76 @@ public abstract class Evenement implements EvenementObservable {
     // Implémentation du pattern Observer
     @Override
     public void ajouterObservateur(ParticipantObserver observer) {
-            observers.add(observer);
+        observers.ajouter(observer);
+    }
+
+    //Abonne un observateur sans le retenir : il est désabonné automatiquement une fois collecté
+    public void ajouterObservateurFaible(ParticipantObserver observer) {
+        observers.ajouterFaible(observer);
     }
 
     @Override
     public void supprimerObservateur(ParticipantObserver observer) {
-        observers.remove(observer);
+        observers.supprimer(observer);
     }
 
     @Override
     public void notifierObservateurs(String message) {
-        if (this.observers == null) {
-            this.observers = new ArrayList<>();
+        DispatcheurNotifications distribution = dispatcheur;
+        for (ParticipantObserver observer : observers.observateursANotifier()) {
+            distribution.distribuer(observer, message);
         }
-        for (ParticipantObserver observer : observers) {
-            observer.mettreAJour(message);
+    }
+
+    //Nombre d'observateurs abonnés et compteurs d'abonnements de l'événement
+    @JsonIgnore
+    public RegistreObservateurs.Statistiques getStatistiquesObservateurs() {
+        return observers.getStatistiques();
+    }
+
+    //Limite le nombre d'observateurs des événements créés après l'appel
+    public static void setLimiteObservateurs(int limite) {
+        if (limite <= 0) {
+            throw new IllegalArgumentException("La limite d'observateurs doit être positive");
         }
+        limiteObservateurs = limite;
     }
     
+    // Écouteurs internes de modification
+    public void ajouterEcouteurModification(EvenementModificationListener ecouteur) {
+        ecouteursModification.add(ecouteur);
+    }
+
+    public void supprimerEcouteurModification(EvenementModificationListener ecouteur) {
+        ecouteursModification.remove(ecouteur);
+    }
+
+    protected void signalerModification(String attribut) {
+        for (EvenementModificationListener ecouteur : ecouteursModification) {
+            ecouteur.evenementModifie(this, attribut);
+        }
+    }
+
+    private void signalerInscriptions(List<Participant> inscrits) {
+        for (EvenementModificationListener ecouteur : ecouteursModification) {
+            ecouteur.participantsInscrits(this, inscrits);
+        }
+    }
+
+    //Attributs exposés aux index secondaires du gestionnaire (nom de l'attribut -> valeur)
+    @JsonIgnore
+    public final Map<String, String> getAttributsIndexables() {
+        Map<String, String> attributs = new HashMap<>();
+        declarerAttributsIndexables(attributs);
+        return attributs;
+    }
+
+    //Les sous-classes complètent cette méthode pour rendre leurs propres attributs indexables
+    protected void declarerAttributsIndexables(Map<String, String> attributs) {
+        attributs.put(ATTRIBUT_TYPE, getClass().getSimpleName());
+        attributs.put(ATTRIBUT_LIEU, lieu);
+    }
+
     // Getters et Setters
     public String getId() {
         return id;
@@ -108,9 +324,24 @@ public abstract class Evenement implements EvenementObservable {
     public String getNom() {
         return nom;
     }
+
+    //Nom sans accents ni majuscules, utilisé par la recherche
+    @JsonIgnore
+    public String getCleRecherche() {
+        CleRecherche cle = cleRecherche;
+        String nomCourant = nom;
+        // La clé mémorise le nom dont elle est issue : une clé calculée sur un ancien nom est ignorée
+        if (cle == null || cle.source() != nomCourant) {
+            cle = new CleRecherche(nomCourant, TexteUtils.normaliserPourRecherche(nomCourant));
+            cleRecherche = cle;
+        }
+        return cle.valeur();
+    }
     
     public void setNom(String nom) {
         this.nom = nom;
+        this.cleRecherche = null;
+        signalerModification(ATTRIBUT_NOM);
         notifierObservateurs("Le nom de l'événement a été modifié: " + nom);
     }
     
@@ -120,6 +351,7 @@ public abstract class Evenement implements EvenementObservable {
     
     public void setDate(LocalDateTime date) {
         this.date = date;
+        signalerModification(ATTRIBUT_DATE);
         notifierObservateurs("La date de l'événement a été modifiée: " + date);
     }
     
@@ -129,6 +361,7 @@ public abstract class Evenement implements EvenementObservable {
     
     public void setLieu(String lieu) {
         this.lieu = lieu;
+        signalerModification(ATTRIBUT_LIEU);
         notifierObservateurs("Le lieu de l'événement a été modifié: " + lieu);
     }
     
@@ -136,8 +369,91 @@ public abstract class Evenement implements EvenementObservable {
         return capaciteMax;
     }
     
+    @JsonProperty("participants")
     public List<Participant> getParticipants() {
-        return new ArrayList<>(participants);
+        return new ArrayList<>(participants.values());
     }
 
-}
\ No newline at end of file
+    //Utilisé par Jackson lors de la désérialisation
+    @JsonProperty("participants")
+    private void setParticipants(List<Participant> participants) {
+        this.inscriptions.clear();
+        this.participants.clear();
+        if (participants != null) {
+            for (Participant participant : participants) {
+                long ordre = sequenceInscription.incrementAndGet();
+                if (inscriptions.putIfAbsent(participant.getId(), ordre) == null) {
+                    this.participants.put(ordre, participant);
+                }
+            }
+        }
+        placesReservees.set(this.participants.size());
+    }
+
+    //Observateurs persistés avec l'événement (abonnements forts uniquement)
+    @JsonProperty("participantObserver")
+    public List<ParticipantObserver> getObservateursPersistes() {
+        return observers.getObservateursForts();
+    }
+
+    @JsonProperty("participantObserver")
+    private void setObservateursPersistes(List<ParticipantObserver> observateurs) {
+        observers.vider();
+        if (observateurs != null) {
+            observateurs.forEach(observers::ajouter);
+        }
+    }
+
+    //Restaure l'état persisté d'un événement relu par une stratégie de sérialisation, sans signaler de modification
+    public void restaurer(String id, String nom, LocalDateTime date, String lieu, int capaciteMax,
+                          List<Participant> participants, List<ParticipantObserver> observateurs) {
+        this.id = id;
+        this.nom = nom;
+        this.cleRecherche = null;
+        this.date = date;
+        this.lieu = lieu;
+        this.capaciteMax = capaciteMax;
+        setParticipants(participants);
+        setObservateursPersistes(observateurs);
+    }
+
+    //Valeur d'un attribut modifiable, telle que journalisée ; null si l'attribut n'est pas pris en charge
+    public List<String> valeurAttribut(String attribut) {
+        return switch (attribut) {
+            case ATTRIBUT_NOM -> Collections.singletonList(nom);
+            case ATTRIBUT_DATE -> Collections.singletonList(date == null ? null : date.toString());
+            case ATTRIBUT_LIEU -> Collections.singletonList(lieu);
+            default -> null;
+        };
+    }
+
+    //Rétablit un attribut relu dans le journal, sans signaler de modification ; faux si l'attribut est inconnu
+    public boolean restaurerAttribut(String attribut, List<String> valeur) {
+        switch (attribut) {
+            case ATTRIBUT_NOM -> {
+                this.nom = valeur.get(0);
+                this.cleRecherche = null;
+            }
+            case ATTRIBUT_DATE -> this.date = valeur.get(0) == null ? null : LocalDateTime.parse(valeur.get(0));
+            case ATTRIBUT_LIEU -> this.lieu = valeur.get(0);
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    //Rétablit des inscriptions relues dans le journal, sans contrôle de capacité ni notification
+    public void restaurerInscriptions(List<Participant> inscrits) {
+        for (Participant participant : inscrits) {
+            long ordre = sequenceInscription.incrementAndGet();
+            if (inscriptions.putIfAbsent(participant.getId(), ordre) == null) {
+                participants.put(ordre, participant);
+                placesReservees.incrementAndGet();
+            }
+        }
+    }
+
+    private record CleRecherche(String source, String valeur) {
+    }
+}
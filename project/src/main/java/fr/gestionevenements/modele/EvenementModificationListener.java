@@ -0,0 +1,13 @@
+package fr.gestionevenements.modele;
+
+import java.util.List;
+
+//Écouteur interne prévenu à chaque modification d'un attribut d'un événement (index, persistance).
+public interface EvenementModificationListener {
+    void evenementModifie(Evenement evenement, String attribut);
+
+    //Inscription de participants ; par défaut une simple modification de l'attribut des participants
+    default void participantsInscrits(Evenement evenement, List<Participant> inscrits) {
+        evenementModifie(evenement, Evenement.ATTRIBUT_PARTICIPANTS);
+    }
+}
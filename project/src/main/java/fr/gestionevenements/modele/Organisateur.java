@@ -1,5 +1,8 @@
 package fr.gestionevenements.modele;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import fr.gestionevenements.service.Notification;
+
 import java.util.ArrayList;
 import java.util.List;
 
@@ -11,6 +14,18 @@ public class Organisateur extends Participant {
         super(nom, email);
         this.evenementsOrganises = new ArrayList<>();
     }
+
+    //Recrée un organisateur persisté en conservant son identifiant
+    public Organisateur(String id, String nom, String email) {
+        super(id, nom, email);
+        this.evenementsOrganises = new ArrayList<>();
+    }
+
+    //Utilisé par Jackson lors de la désérialisation
+    public Organisateur() {
+        this.evenementsOrganises = new ArrayList<>();
+    }
+
     public void ajouterEvenementOrganise(Evenement evenement) {
         if (!evenementsOrganises.contains(evenement)) {
             evenementsOrganises.add(evenement);
@@ -27,13 +42,15 @@ public class Organisateur extends Participant {
         }
     }
 
+    //Non sérialisé : chaque événement organisé référence déjà l'organisateur parmi ses observateurs
+    @JsonIgnore
     public List<Evenement> getEvenementsOrganises() {
         return new ArrayList<>(evenementsOrganises);
     }
 
+    //Les notifications d'un organisateur sont prioritaires
     @Override
-    public void mettreAJour(String message) {
-        System.out.println("Notification PRIORITAIRE à l'organisateur " + nom + 
-                           " (" + email + "): " + message);
+    public Notification creerNotification(String message) {
+        return new Notification(nom, email, message, true);
     }
 }
\ No newline at end of file
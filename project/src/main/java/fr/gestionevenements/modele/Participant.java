@@ -2,11 +2,16 @@ package fr.gestionevenements.modele;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import fr.gestionevenements.service.Notification;
+import fr.gestionevenements.service.NotificationService;
 
 import java.util.UUID;
 
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class Participant implements ParticipantObserver {
+    // Service par lequel transitent les notifications des participants (console par défaut)
+    private static volatile NotificationService serviceNotification = System.out::println;
+
     protected String id;
     @JsonProperty("nom")
     protected String nom;
@@ -19,12 +24,35 @@ public class Participant implements ParticipantObserver {
         this.email = email;
     }
 
+    //Recrée un participant persisté en conservant son identifiant
+    public Participant(String id, String nom, String email) {
+        this.id = id;
+        this.nom = nom;
+        this.email = email;
+    }
+
     public Participant() {}
 
     @Override
     public void mettreAJour(String message) {
-        // Dans une implémentation réelle, on pourrait envoyer un email
-        System.out.println("Notification à " + nom + " (" + email + "): " + message);
+        serviceNotification.envoyerNotification(creerNotification(message));
+    }
+
+    @Override
+    public Notification creerNotification(String message) {
+        return new Notification(nom, email, message, false);
+    }
+
+    //Définit le service de notification utilisé par tous les participants et organisateurs
+    public static void setServiceNotification(NotificationService service) {
+        if (service == null) {
+            throw new IllegalArgumentException("Le service de notification ne peut pas être null");
+        }
+        serviceNotification = service;
+    }
+
+    protected static NotificationService getServiceNotification() {
+        return serviceNotification;
     }
     
     // Getters et Setters
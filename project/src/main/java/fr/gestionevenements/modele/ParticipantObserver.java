@@ -1,5 +1,24 @@
 package fr.gestionevenements.modele;
 
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import fr.gestionevenements.service.Notification;
+
+// Les observateurs persistés (et les participants) portent leur type, nommé comme dans les fichiers existants
+@JsonTypeInfo(
+        use = JsonTypeInfo.Id.NAME,
+        include = JsonTypeInfo.As.PROPERTY,
+        property = "@class"
+)
+@JsonSubTypes({
+        @JsonSubTypes.Type(value = Participant.class, name = "fr.gestionevenements.modele.Participant"),
+        @JsonSubTypes.Type(value = Organisateur.class, name = "fr.gestionevenements.modele.Organisateur")
+})
 public interface ParticipantObserver {
     void mettreAJour(String message);
-}
\ No newline at end of file
+
+    //Notification adressée à cet observateur, transmissible par un transport (outbox) ; null s'il n'a pas d'adresse
+    default Notification creerNotification(String message) {
+        return null;
+    }
+}
@@ -0,0 +1,191 @@
+package fr.gestionevenements.modele;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Registre des observateurs d'un événement.
+ * Abonnement et désabonnement en O(1) (table de hachage ordonnée), notification dans l'ordre d'abonnement
+ * sans copie tant que le registre n'a pas changé. Un observateur peut être référencé faiblement :
+ * il est alors retiré automatiquement après avoir été collecté par le ramasse-miettes.
+ * Un observateur (au sens d'equals) n'est abonné qu'une fois, fortement ou faiblement : un abonnement fort
+ * remplace un abonnement faible, l'inverse est sans effet. Le nombre d'observateurs peut être borné.
+ */
+public class RegistreObservateurs {
+    private static final ParticipantObserver[] AUCUN = new ParticipantObserver[0];
+
+    private final Map<Cle, Abonnement> abonnements = new LinkedHashMap<>();
+    private final ReferenceQueue<ParticipantObserver> collectes = new ReferenceQueue<>();
+    private final int limite;
+    private ParticipantObserver[] instantane = AUCUN;
+    private boolean instantaneAJour = true;
+    private long nombreAbonnements;
+    private long nombreDesabonnements;
+    private long nombreCollectes;
+
+    public RegistreObservateurs() {
+        this(Integer.MAX_VALUE);
+    }
+
+    public RegistreObservateurs(int limite) {
+        if (limite <= 0) {
+            throw new IllegalArgumentException("La limite d'observateurs doit être positive");
+        }
+        this.limite = limite;
+    }
+
+    //Abonne un observateur référencé fortement ; retourne false s'il était déjà abonné fortement
+    public synchronized boolean ajouter(ParticipantObserver observateur) {
+        return abonner(observateur, true);
+    }
+
+    //Abonne un observateur référencé faiblement, retiré automatiquement une fois collecté ; false s'il était déjà abonné
+    public synchronized boolean ajouterFaible(ParticipantObserver observateur) {
+        return abonner(observateur, false);
+    }
+
+    public synchronized boolean supprimer(ParticipantObserver observateur) {
+        purger();
+        Abonnement retire = abonnements.remove(new Cle(observateur, null));
+        if (retire == null) {
+            return false;
+        }
+        nombreDesabonnements++;
+        instantaneAJour = false;
+        return true;
+    }
+
+    public synchronized boolean contient(ParticipantObserver observateur) {
+        return abonnements.containsKey(new Cle(observateur, null));
+    }
+
+    //Observateurs actuellement abonnés, dans l'ordre d'abonnement
+    public List<ParticipantObserver> getObservateurs() {
+        List<ParticipantObserver> observateurs = new ArrayList<>();
+        for (ParticipantObserver observateur : observateursANotifier()) {
+            observateurs.add(observateur);
+        }
+        return observateurs;
+    }
+
+    //Observateurs abonnés par référence forte, dans l'ordre d'abonnement
+    public synchronized List<ParticipantObserver> getObservateursForts() {
+        List<ParticipantObserver> observateurs = new ArrayList<>();
+        for (Abonnement abonnement : abonnements.values()) {
+            if (abonnement.fort() != null) {
+                observateurs.add(abonnement.fort());
+            }
+        }
+        return observateurs;
+    }
+
+    //Tableau partagé des observateurs à notifier, reconstruit uniquement après une modification
+    synchronized ParticipantObserver[] observateursANotifier() {
+        purger();
+        if (!instantaneAJour) {
+            List<ParticipantObserver> vivants = new ArrayList<>(abonnements.size());
+            for (Abonnement abonnement : abonnements.values()) {
+                ParticipantObserver observateur = abonnement.observateur();
+                if (observateur != null) {
+                    vivants.add(observateur);
+                }
+            }
+            instantane = vivants.toArray(AUCUN);
+            instantaneAJour = true;
+        }
+        return instantane;
+    }
+
+    public synchronized void vider() {
+        nombreDesabonnements += abonnements.size();
+        abonnements.clear();
+        instantaneAJour = false;
+    }
+
+    public synchronized Statistiques getStatistiques() {
+        purger();
+        return new Statistiques(abonnements.size(), nombreAbonnements, nombreDesabonnements, nombreCollectes);
+    }
+
+    //Nombre d'abonnés actuels et compteurs cumulés depuis la création du registre
+    public record Statistiques(int abonnes, long abonnements, long desabonnements, long collectes) {
+    }
+
+    private boolean abonner(ParticipantObserver observateur, boolean fort) {
+        purger();
+        Cle cle = new Cle(observateur, fort ? null : collectes);
+        Abonnement abonnement = new Abonnement(fort ? observateur : null, cle);
+        Abonnement existant = abonnements.get(cle);
+        if (existant != null) {
+            if (!fort || existant.fort() != null) {
+                return false;
+            }
+            // Abonnement faible rendu fort : la clé est remplacée pour ne plus dépendre de l'ancien référent
+            abonnements.remove(cle);
+            abonnements.put(cle, abonnement);
+            instantaneAJour = false;
+            return true;
+        }
+        if (abonnements.size() >= limite) {
+            throw new IllegalStateException("Le nombre maximal d'observateurs (" + limite + ") est atteint");
+        }
+        abonnements.put(cle, abonnement);
+        nombreAbonnements++;
+        instantaneAJour = false;
+        return true;
+    }
+
+    // Retire les observateurs faibles déjà collectés
+    private void purger() {
+        Reference<? extends ParticipantObserver> reference;
+        while ((reference = collectes.poll()) != null) {
+            if (abonnements.remove(reference) != null) {
+                nombreCollectes++;
+                instantaneAJour = false;
+            }
+        }
+    }
+
+    // Un abonnement fort retient son observateur ; un abonnement faible ne l'atteint que par sa clé
+    private record Abonnement(ParticipantObserver fort, Cle cle) {
+        ParticipantObserver observateur() {
+            return fort != null ? fort : cle.get();
+        }
+    }
+
+    /*
+     * Clé commune aux abonnements forts et faibles, comparée par égalité (equals) de l'observateur référencé.
+     * Elle ne retient pas l'observateur ; une clé dont le référent a été collecté n'est plus égale qu'à elle-même
+     * et n'est retirée que par purger.
+     */
+    private static final class Cle extends WeakReference<ParticipantObserver> {
+        private final int hash;
+
+        private Cle(ParticipantObserver observateur, ReferenceQueue<ParticipantObserver> file) {
+            super(observateur, file);
+            this.hash = observateur.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object autre) {
+            if (this == autre) {
+                return true;
+            }
+            if (!(autre instanceof Cle cle)) {
+                return false;
+            }
+            ParticipantObserver observateur = get();
+            return observateur != null && observateur.equals(cle.get());
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package fr.gestionevenements.serialisation;
+
+import fr.gestionevenements.modele.Evenement;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+/**
+ * Implémentation de la stratégie de sérialisation/désérialisation dans un format binaire compact.
+ * Les chaînes répétées (classes, lieux, genres, participants...) sont regroupées dans un dictionnaire,
+ * les dates sont encodées depuis l'époque et chaque événement est un enregistrement préfixé par sa longueur
+ * (voir {@link FormatBinaire}).
+ */
+public class BinarySerializationStrategy implements SerializationStrategy {
+    // Taille du tampon d'écriture et de lecture du fichier
+    private static final int TAILLE_TAMPON = 64 * 1024;
+
+    /**
+     * Sérialise une map d'événements dans un fichier binaire, remplacé atomiquement.
+     * @param evenements Map contenant les événements à sérialiser.
+     * @param fichier Chemin du fichier de sortie.
+     * @throws UncheckedIOException si l'écriture échoue (l'ancien fichier est alors conservé).
+     */
+    @Override
+    public void serialiser(Map<String, Evenement> evenements, String fichier) {
+        try {
+            File file = new File(fichier);
+            EcritureAtomique.ecrire(file.toPath(), sortie -> ecrire(evenements, sortie));
+            System.out.println("✓ Sérialisation binaire réussie: " + evenements.size() + " événements sauvegardés dans " + fichier);
+            System.out.println("  Taille du fichier: " + file.length() + " bytes");
+        } catch (IOException e) {
+            System.err.println("✗ Erreur lors de la sérialisation binaire: " + e.getMessage());
+            throw new UncheckedIOException("Échec de la sauvegarde dans " + fichier, e);
+        }
+    }
+
+    /**
+     * Écrit l'en-tête, le dictionnaire puis un enregistrement par événement.
+     * @param evenements Map contenant les événements à écrire.
+     * @param sortie Flux de destination, qui n'est pas fermé.
+     */
+    @Override
+    public void ecrire(Map<String, Evenement> evenements, OutputStream sortie) throws IOException {
+        // Les événements sont figés dans une liste : le dictionnaire et les enregistrements portent sur le même ensemble
+        List<Evenement> liste = new ArrayList<>(evenements.values());
+        List<String> dictionnaire = FormatBinaire.construireDictionnaire(liste);
+        Map<String, Integer> references = FormatBinaire.indexer(dictionnaire);
+
+        // L'en-tête est préparé en mémoire : le flux de sortie ne reçoit que des blocs
+        FormatBinaire.Tampon tampon = new FormatBinaire.Tampon(TAILLE_TAMPON);
+        FormatBinaire.ecrireEntete(tampon.sortie, dictionnaire, liste.size());
+        tampon.writeTo(sortie);
+        DataOutputStream donnees = new DataOutputStream(sortie);
+        for (Evenement evenement : liste) {
+            FormatBinaire.encoder(evenement, references, tampon);
+            donnees.writeInt(tampon.size());
+            tampon.writeTo(donnees);
+        }
+        donnees.flush();
+    }
+
+    /**
+     * Désérialise un fichier binaire en une map d'événements.
+     * @param fichier Chemin du fichier binaire à lire.
+     * @return Map contenant les événements désérialisés, vide si le fichier n'existe pas ou est vide.
+     * @throws UncheckedIOException si le fichier est illisible ou incomplet.
+     */
+    @Override
+    public Map<String, Evenement> deserialiser(String fichier) {
+        File file = new File(fichier);
+        if (!file.exists()) {
+            System.out.println("⚠ Le fichier " + fichier + " n'existe pas.");
+            return new HashMap<>();
+        }
+        if (file.length() == 0) {
+            System.out.println("⚠ Le fichier " + fichier + " est vide.");
+            return new HashMap<>();
+        }
+
+        Map<String, Evenement> evenements = new HashMap<>();
+        try (InputStream entree = new BufferedInputStream(new FileInputStream(file), TAILLE_TAMPON)) {
+            lire(entree, evenement -> evenements.put(evenement.getId(), evenement));
+            System.out.println("✓ Désérialisation binaire réussie: " + evenements.size() + " événements chargés");
+            return evenements;
+        } catch (IOException e) {
+            System.err.println("✗ Erreur lors de la désérialisation binaire: " + e.getMessage());
+            throw new UncheckedIOException("Fichier " + fichier + " illisible ou incomplet", e);
+        }
+    }
+
+    /**
+     * Lit en flux un fichier produit par {@link #ecrire} : chaque enregistrement est décodé
+     * puis transmis au consommateur avant la lecture du suivant.
+     * @param entree Flux à lire, qui n'est pas fermé.
+     * @param consommateur Reçoit chaque événement lu.
+     */
+    @Override
+    public void lire(InputStream entree, Consumer<Evenement> consommateur) throws IOException {
+        DataInputStream donnees = new DataInputStream(entree);
+        String[] chaines = FormatBinaire.lireEntete(donnees);
+        IntFunction<String> dictionnaire = reference -> chaines[reference];
+        int nombre = FormatBinaire.lireVarint(donnees);
+        byte[] tampon = new byte[256];
+        for (int i = 0; i < nombre; i++) {
+            int longueur = donnees.readInt();
+            if (longueur < 0) {
+                throw new StreamCorruptedException("Longueur d'enregistrement invalide : " + longueur);
+            }
+            if (longueur > tampon.length) {
+                tampon = new byte[Math.max(longueur, tampon.length * 2)];
+            }
+            donnees.readFully(tampon, 0, longueur);
+            consommateur.accept(FormatBinaire.decoder(ByteBuffer.wrap(tampon, 0, longueur), dictionnaire));
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package fr.gestionevenements.serialisation;
+
+import fr.gestionevenements.modele.Evenement;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Stratégie de sérialisation compressant en flux le format d'une autre stratégie (JSON, binaire).
+ * Les données sont compressées au fil de l'écriture et décompressées au fil de la lecture,
+ * sans passer par une copie non compressée en mémoire ou sur disque.
+ * La lecture reconnaît le codec utilisé à l'écriture, et lit aussi les fichiers non compressés.
+ */
+public class CompressedSerializationStrategy implements SerializationStrategy {
+    // Taille du tampon de lecture du fichier
+    private static final int TAILLE_TAMPON = 64 * 1024;
+
+    private final SerializationStrategy strategie;
+    private final Compression compression;
+
+    public CompressedSerializationStrategy(SerializationStrategy strategie, Compression compression) {
+        if (strategie == null || compression == null) {
+            throw new IllegalArgumentException("La stratégie et la compression sont obligatoires");
+        }
+        this.strategie = strategie;
+        this.compression = compression;
+    }
+
+    public SerializationStrategy getStrategie() {
+        return strategie;
+    }
+
+    public Compression getCompression() {
+        return compression;
+    }
+
+    /**
+     * Sérialise une map d'événements dans un fichier compressé, remplacé atomiquement.
+     * @param evenements Map contenant les événements à sérialiser.
+     * @param fichier Chemin du fichier de sortie.
+     * @throws UncheckedIOException si l'écriture échoue (l'ancien fichier est alors conservé).
+     */
+    @Override
+    public void serialiser(Map<String, Evenement> evenements, String fichier) {
+        try {
+            File file = new File(fichier);
+            EcritureAtomique.ecrire(file.toPath(), sortie -> ecrire(evenements, sortie));
+            System.out.println("✓ Sérialisation compressée (" + compression + ") réussie: " + evenements.size()
+                    + " événements sauvegardés dans " + fichier);
+            System.out.println("  Taille du fichier: " + file.length() + " bytes");
+        } catch (IOException e) {
+            System.err.println("✗ Erreur lors de la sérialisation compressée: " + e.getMessage());
+            throw new UncheckedIOException("Échec de la sauvegarde dans " + fichier, e);
+        }
+    }
+
+    /**
+     * Écrit les événements dans le format de la stratégie enveloppée, compressé par le codec choisi.
+     * @param evenements Map contenant les événements à écrire.
+     * @param sortie Flux de destination, qui n'est pas fermé.
+     */
+    @Override
+    public void ecrire(Map<String, Evenement> evenements, OutputStream sortie) throws IOException {
+        // Fermer le flux compressé termine la compression et libère le codec, sans fermer la sortie
+        try (OutputStream compresse = compression.compresser(new FilterOutputStream(sortie) {
+            @Override
+            public void write(byte[] donnees, int debut, int longueur) throws IOException {
+                out.write(donnees, debut, longueur);
+            }
+
+            @Override
+            public void close() throws IOException {
+                flush();
+            }
+        })) {
+            strategie.ecrire(evenements, compresse);
+        }
+    }
+
+    /**
+     * Désérialise un fichier compressé (ou non) en une map d'événements.
+     * @param fichier Chemin du fichier à lire.
+     * @return Map contenant les événements désérialisés, vide si le fichier n'existe pas ou est vide.
+     * @throws UncheckedIOException si le fichier est illisible ou incomplet.
+     */
+    @Override
+    public Map<String, Evenement> deserialiser(String fichier) {
+        File file = new File(fichier);
+        if (!file.exists()) {
+            System.out.println("⚠ Le fichier " + fichier + " n'existe pas.");
+            return new HashMap<>();
+        }
+        if (file.length() == 0) {
+            System.out.println("⚠ Le fichier " + fichier + " est vide.");
+            return new HashMap<>();
+        }
+
+        Map<String, Evenement> evenements = new HashMap<>();
+        try (InputStream entree = new BufferedInputStream(new FileInputStream(file), TAILLE_TAMPON)) {
+            lire(entree, evenement -> evenements.put(evenement.getId(), evenement));
+            System.out.println("✓ Désérialisation compressée réussie: " + evenements.size() + " événements chargés");
+            return evenements;
+        } catch (IOException e) {
+            System.err.println("✗ Erreur lors de la désérialisation compressée: " + e.getMessage());
+            throw new UncheckedIOException("Fichier " + fichier + " illisible ou incomplet", e);
+        }
+    }
+
+    /**
+     * Décompresse le flux au fil de la lecture et le transmet à la stratégie enveloppée.
+     * @param entree Flux à lire, qui n'est pas fermé.
+     * @param consommateur Reçoit chaque événement lu.
+     */
+    @Override
+    public void lire(InputStream entree, Consumer<Evenement> consommateur) throws IOException {
+        try (InputStream decompresse = Compression.decompresser(new FilterInputStream(entree) {
+            @Override
+            public void close() {
+                // Le flux de l'appelant reste ouvert
+            }
+        })) {
+            strategie.lire(decompresse, consommateur);
+            // Lire jusqu'à la fin vérifie la somme de contrôle GZIP ou la marque de fin des blocs
+            decompresse.transferTo(OutputStream.nullOutputStream());
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package fr.gestionevenements.serialisation;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compression appliquée au flux d'une stratégie de sérialisation (voir {@link CompressedSerializationStrategy}).
+ * GZIP privilégie la taille des fichiers ; BLOCS privilégie la vitesse (Deflate au niveau le plus rapide,
+ * par blocs indépendants, voir {@link FluxBlocs}). La lecture reconnaît le codec à l'en-tête du flux.
+ */
+public enum Compression {
+    AUCUNE("Aucune", "") {
+        @Override
+        OutputStream compresser(OutputStream sortie) {
+            return sortie;
+        }
+    },
+    GZIP("GZIP", ".gz") {
+        @Override
+        OutputStream compresser(OutputStream sortie) throws IOException {
+            return new GZIPOutputStream(sortie, TAILLE_TAMPON);
+        }
+    },
+    BLOCS("Rapide (blocs)", ".blz") {
+        @Override
+        OutputStream compresser(OutputStream sortie) throws IOException {
+            return new FluxBlocs.Sortie(sortie);
+        }
+    };
+
+    // Taille du tampon des flux GZIP
+    private static final int TAILLE_TAMPON = 64 * 1024;
+
+    private final String libelle;
+    private final String extension;
+
+    Compression(String libelle, String extension) {
+        this.libelle = libelle;
+        this.extension = extension;
+    }
+
+    public String getLibelle() {
+        return libelle;
+    }
+
+    //Suffixe ajouté au nom des fichiers compressés (vide sans compression)
+    public String getExtension() {
+        return extension;
+    }
+
+    //Flux compressant les données écrites ; sa fermeture termine la compression et ferme la sortie
+    abstract OutputStream compresser(OutputStream sortie) throws IOException;
+
+    //Flux décompressant l'entrée selon son en-tête (GZIP, blocs) ; une entrée non compressée est lue telle quelle
+    static InputStream decompresser(InputStream entree) throws IOException {
+        InputStream source = entree.markSupported() ? entree : new BufferedInputStream(entree, TAILLE_TAMPON);
+        source.mark(Integer.BYTES);
+        byte[] entete = source.readNBytes(Integer.BYTES);
+        source.reset();
+        if (entete.length >= 2 && (entete[0] & 0xFF) == 0x1F && (entete[1] & 0xFF) == 0x8B) {
+            return new GZIPInputStream(source, TAILLE_TAMPON);
+        }
+        if (entete.length == Integer.BYTES && ByteBuffer.wrap(entete).getInt() == FluxBlocs.MAGIE) {
+            new DataInputStream(source).readInt();
+            return new FluxBlocs.Entree(source);
+        }
+        return source;
+    }
+
+    @Override
+    public String toString() {
+        return libelle;
+    }
+}
@@ -0,0 +1,59 @@
+package fr.gestionevenements.serialisation;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Écriture d'un fichier de sauvegarde sans jamais exposer de contenu partiel :
+ * les données sont écrites dans un fichier temporaire du même répertoire, synchronisées sur le disque,
+ * puis le fichier temporaire remplace la cible par un renommage atomique. Après un arrêt brutal,
+ * la cible contient donc soit l'ancienne sauvegarde, soit la nouvelle, complète.
+ * Chaque écriture a son propre fichier temporaire : deux sauvegardes concurrentes de la même cible
+ * (synchrone et en arrière-plan) ne peuvent pas mélanger leurs contenus, la dernière renommée l'emporte.
+ */
+public final class EcritureAtomique {
+    // Taille du tampon d'écriture sur le canal du fichier
+    private static final int TAILLE_TAMPON = 64 * 1024;
+
+    private EcritureAtomique() {
+    }
+
+    @FunctionalInterface
+    public interface Contenu {
+        void ecrire(OutputStream sortie) throws IOException;
+    }
+
+    public static void ecrire(Path fichier, Contenu contenu) throws IOException {
+        Path cible = fichier.toAbsolutePath();
+        Files.createDirectories(cible.getParent());
+        Path temporaire = Files.createTempFile(cible.getParent(), cible.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel canal = FileChannel.open(temporaire, StandardOpenOption.WRITE)) {
+                OutputStream sortie = new BufferedOutputStream(Channels.newOutputStream(canal), TAILLE_TAMPON);
+                contenu.ecrire(sortie);
+                sortie.flush();
+                canal.force(true);
+            }
+            Files.move(temporaire, cible, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            synchroniserRepertoire(cible.getParent());
+        } finally {
+            Files.deleteIfExists(temporaire);
+        }
+    }
+
+    // Rend le renommage lui-même durable ; certains systèmes (Windows) refusent d'ouvrir un répertoire
+    private static void synchroniserRepertoire(Path repertoire) {
+        try (FileChannel canal = FileChannel.open(repertoire, StandardOpenOption.READ)) {
+            canal.force(true);
+        } catch (IOException e) {
+            // Sans synchronisation possible, le renommage sera écrit par le système de fichiers
+        }
+    }
+}
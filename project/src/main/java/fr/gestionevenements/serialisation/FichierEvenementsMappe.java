@@ -0,0 +1,195 @@
+package fr.gestionevenements.serialisation;
+
+import fr.gestionevenements.modele.Evenement;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * Fichier d'événements au format binaire projeté en mémoire (NIO), en lecture seule.
+ * <p>
+ * L'ouverture ne décode aucun événement : elle parcourt les en-têtes d'enregistrements pour construire
+ * un index ID -> position (table à adressage ouvert de positions, sans conserver les IDs en mémoire).
+ * Chaque événement n'est décodé qu'à la demande, et les chaînes du dictionnaire ne sont décodées
+ * qu'à leur première utilisation. La mémoire occupée reste ainsi proportionnelle à ce qui est lu.
+ * <p>
+ * Le fichier ne doit pas être modifié tant qu'il est projeté ; une nouvelle sauvegarde doit être
+ * écrite ailleurs puis substituée.
+ */
+public final class FichierEvenementsMappe {
+    private final Path chemin;
+    private final MappedByteBuffer donnees;
+    private final int[] positionsDictionnaire;
+    // Chaînes du dictionnaire déjà décodées (les courses sont bénignes : une chaîne est immuable)
+    private final String[] chaines;
+    private final int debutEnregistrements;
+    private final int nombre;
+    // Position + 1 de chaque enregistrement, rangée selon le hachage de son ID (0 = case vide)
+    private final int[] table;
+    private final int masque;
+
+    private FichierEvenementsMappe(Path chemin, MappedByteBuffer donnees) throws IOException {
+        this.chemin = chemin;
+        this.donnees = donnees;
+        try {
+            ByteBuffer lecture = donnees.duplicate();
+            if (lecture.getInt() != FormatBinaire.MAGIE) {
+                throw new StreamCorruptedException("Ce fichier n'est pas au format binaire des événements");
+            }
+            short version = lecture.getShort();
+            if (version != FormatBinaire.VERSION) {
+                throw new StreamCorruptedException("Version du format binaire non prise en charge : " + version);
+            }
+
+            this.positionsDictionnaire = new int[FormatBinaire.lireVarint(lecture)];
+            this.chaines = new String[positionsDictionnaire.length];
+            for (int i = 0; i < positionsDictionnaire.length; i++) {
+                positionsDictionnaire[i] = lecture.position();
+                int longueur = FormatBinaire.lireVarint(lecture);
+                lecture.position(lecture.position() + longueur);
+            }
+
+            this.nombre = FormatBinaire.lireVarint(lecture);
+            this.debutEnregistrements = lecture.position();
+            int capacite = Integer.highestOneBit(Math.max(2, nombre) * 2 - 1) << 1;
+            this.table = new int[capacite];
+            this.masque = capacite - 1;
+
+            // Seuls les IDs sont lus, sans être convertis en chaînes
+            int position = debutEnregistrements;
+            for (int i = 0; i < nombre; i++) {
+                ByteBuffer contenu = contenu(position);
+                int longueurId = FormatBinaire.lireVarint(contenu);
+                int hachage = hacher(contenu, contenu.position(), longueurId);
+                int indice = hachage & masque;
+                while (table[indice] != 0) {
+                    indice = (indice + 1) & masque;
+                }
+                table[indice] = position + 1;
+                position += Integer.BYTES + contenu.limit();
+            }
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new StreamCorruptedException("Fichier binaire tronqué ou corrompu : " + chemin);
+        }
+    }
+
+    /**
+     * Projette en mémoire un fichier écrit par {@link BinarySerializationStrategy} et indexe ses enregistrements.
+     * @param chemin Fichier à ouvrir.
+     * @return Le fichier projeté, prêt à être interrogé.
+     */
+    public static FichierEvenementsMappe ouvrir(Path chemin) throws IOException {
+        try (FileChannel canal = FileChannel.open(chemin, StandardOpenOption.READ)) {
+            long taille = canal.size();
+            if (taille > Integer.MAX_VALUE) {
+                throw new IOException("Fichier trop volumineux pour être projeté en un seul bloc : " + taille + " octets");
+            }
+            // La projection reste valide après la fermeture du canal
+            return new FichierEvenementsMappe(chemin, canal.map(FileChannel.MapMode.READ_ONLY, 0, taille));
+        }
+    }
+
+    public Path getChemin() {
+        return chemin;
+    }
+
+    //Nombre d'événements contenus dans le fichier
+    public int taille() {
+        return nombre;
+    }
+
+    public boolean contient(String id) {
+        return localiser(id) >= 0;
+    }
+
+    /**
+     * Décode l'événement portant cet ID. Chaque appel produit une nouvelle instance :
+     * c'est à l'appelant de conserver les événements qu'il a déjà obtenus.
+     * @param id ID de l'événement recherché.
+     * @return L'événement décodé, ou null si le fichier ne le contient pas.
+     */
+    public Evenement lire(String id) throws IOException {
+        int position = localiser(id);
+        return position < 0 ? null : FormatBinaire.decoder(contenu(position), this::chaine);
+    }
+
+    //Parcourt les IDs des événements dans l'ordre du fichier, sans décoder les événements
+    public void parcourirIdentifiants(Consumer<String> action) throws IOException {
+        int position = debutEnregistrements;
+        for (int i = 0; i < nombre; i++) {
+            ByteBuffer contenu = contenu(position);
+            action.accept(FormatBinaire.lireIdentifiant(contenu));
+            position += Integer.BYTES + contenu.limit();
+        }
+    }
+
+    // Position de l'enregistrement portant cet ID, ou -1
+    private int localiser(String id) {
+        byte[] cible = id.getBytes(StandardCharsets.UTF_8);
+        int hachage = hacher(ByteBuffer.wrap(cible), 0, cible.length);
+        int indice = hachage & masque;
+        while (table[indice] != 0) {
+            int position = table[indice] - 1;
+            if (memeIdentifiant(position, cible)) {
+                return position;
+            }
+            indice = (indice + 1) & masque;
+        }
+        return -1;
+    }
+
+    private boolean memeIdentifiant(int position, byte[] cible) {
+        try {
+            ByteBuffer contenu = contenu(position);
+            if (FormatBinaire.lireVarint(contenu) != cible.length) {
+                return false;
+            }
+            int debut = contenu.position();
+            for (int i = 0; i < cible.length; i++) {
+                if (contenu.get(debut + i) != cible[i]) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            // L'enregistrement a été validé à l'ouverture
+            return false;
+        }
+    }
+
+    // Vue indépendante sur le contenu d'un enregistrement (sans son préfixe de longueur)
+    private ByteBuffer contenu(int position) {
+        int longueur = donnees.getInt(position);
+        return donnees.slice(position + Integer.BYTES, longueur);
+    }
+
+    private String chaine(int reference) {
+        String chaine = chaines[reference];
+        if (chaine == null) {
+            ByteBuffer lecture = donnees.duplicate().position(positionsDictionnaire[reference]);
+            try {
+                chaine = FormatBinaire.lireChaine(lecture);
+            } catch (IOException e) {
+                throw new IllegalStateException("Dictionnaire corrompu dans " + chemin, e);
+            }
+            chaines[reference] = chaine;
+        }
+        return chaine;
+    }
+
+    private static int hacher(ByteBuffer octets, int debut, int longueur) {
+        int hachage = 1;
+        for (int i = debut; i < debut + longueur; i++) {
+            hachage = 31 * hachage + octets.get(i);
+        }
+        return hachage ^ (hachage >>> 16);
+    }
+}
@@ -0,0 +1,187 @@
+package fr.gestionevenements.serialisation;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Codec de compression rapide par blocs : le flux est découpé en blocs de 256 Ko compressés
+ * indépendamment par Deflate au niveau le plus rapide (sans en-tête zlib ni somme de contrôle).
+ * Format : MAGIE, puis pour chaque bloc sa taille décompressée, sa taille stockée et ses données,
+ * et enfin une taille nulle marquant la fin du flux. Un bloc que Deflate ne réduit pas est stocké tel quel
+ * (taille stockée égale à la taille décompressée).
+ */
+final class FluxBlocs {
+    static final int MAGIE = 0x4745425A;
+    static final int TAILLE_BLOC = 256 * 1024;
+
+    private FluxBlocs() {
+    }
+
+    static final class Sortie extends OutputStream {
+        private final DataOutputStream sortie;
+        private final Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+        private final byte[] bloc = new byte[TAILLE_BLOC];
+        private final byte[] compresse = new byte[TAILLE_BLOC];
+        private int position;
+        private boolean ferme;
+
+        Sortie(OutputStream sortie) throws IOException {
+            this.sortie = new DataOutputStream(sortie);
+            this.sortie.writeInt(MAGIE);
+        }
+
+        @Override
+        public void write(int octet) throws IOException {
+            if (position == bloc.length) {
+                ecrireBloc();
+            }
+            bloc[position++] = (byte) octet;
+        }
+
+        @Override
+        public void write(byte[] donnees, int debut, int longueur) throws IOException {
+            while (longueur > 0) {
+                if (position == bloc.length) {
+                    ecrireBloc();
+                }
+                int copie = Math.min(longueur, bloc.length - position);
+                System.arraycopy(donnees, debut, bloc, position, copie);
+                position += copie;
+                debut += copie;
+                longueur -= copie;
+            }
+        }
+
+        // Les données en attente restent dans le bloc courant : vider ne doit pas produire de petits blocs
+        @Override
+        public void flush() throws IOException {
+            sortie.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (ferme) {
+                return;
+            }
+            ferme = true;
+            try {
+                if (position > 0) {
+                    ecrireBloc();
+                }
+                sortie.writeInt(0);
+                sortie.close();
+            } finally {
+                deflater.end();
+            }
+        }
+
+        private void ecrireBloc() throws IOException {
+            deflater.reset();
+            deflater.setInput(bloc, 0, position);
+            deflater.finish();
+            int taille = deflater.deflate(compresse);
+            sortie.writeInt(position);
+            if (deflater.finished() && taille < position) {
+                sortie.writeInt(taille);
+                sortie.write(compresse, 0, taille);
+            } else {
+                sortie.writeInt(position);
+                sortie.write(bloc, 0, position);
+            }
+            position = 0;
+        }
+    }
+
+    static final class Entree extends InputStream {
+        private final DataInputStream entree;
+        private final Inflater inflater = new Inflater(true);
+        private final byte[] bloc = new byte[TAILLE_BLOC];
+        private final byte[] compresse = new byte[TAILLE_BLOC];
+        private int position;
+        private int limite;
+        private boolean termine;
+
+        Entree(InputStream entree) {
+            this.entree = new DataInputStream(entree);
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (position == limite && !lireBloc()) {
+                return -1;
+            }
+            return bloc[position++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] destination, int debut, int longueur) throws IOException {
+            if (longueur == 0) {
+                return 0;
+            }
+            if (position == limite && !lireBloc()) {
+                return -1;
+            }
+            int copie = Math.min(longueur, limite - position);
+            System.arraycopy(bloc, position, destination, debut, copie);
+            position += copie;
+            return copie;
+        }
+
+        @Override
+        public int available() {
+            return limite - position;
+        }
+
+        @Override
+        public void close() throws IOException {
+            inflater.end();
+            entree.close();
+        }
+
+        private boolean lireBloc() throws IOException {
+            if (termine) {
+                return false;
+            }
+            int tailleBrute;
+            try {
+                tailleBrute = entree.readInt();
+            } catch (EOFException e) {
+                throw new EOFException("Flux compressé incomplet : marque de fin absente");
+            }
+            if (tailleBrute == 0) {
+                termine = true;
+                return false;
+            }
+            int tailleStockee = entree.readInt();
+            if (tailleBrute < 0 || tailleBrute > TAILLE_BLOC || tailleStockee <= 0 || tailleStockee > tailleBrute) {
+                throw new StreamCorruptedException("En-tête de bloc invalide : " + tailleBrute + "/" + tailleStockee);
+            }
+            if (tailleStockee == tailleBrute) {
+                entree.readFully(bloc, 0, tailleBrute);
+            } else {
+                entree.readFully(compresse, 0, tailleStockee);
+                inflater.reset();
+                inflater.setInput(compresse, 0, tailleStockee);
+                try {
+                    if (inflater.inflate(bloc, 0, tailleBrute) != tailleBrute || !inflater.finished()) {
+                        throw new StreamCorruptedException("Bloc compressé de taille incohérente");
+                    }
+                } catch (DataFormatException e) {
+                    throw new ZipException("Bloc compressé invalide : " + e.getMessage());
+                }
+            }
+            position = 0;
+            limite = tailleBrute;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,362 @@
+package fr.gestionevenements.serialisation;
+
+import fr.gestionevenements.modele.Concert;
+import fr.gestionevenements.modele.Conference;
+import fr.gestionevenements.modele.Evenement;
+import fr.gestionevenements.modele.Organisateur;
+import fr.gestionevenements.modele.Participant;
+import fr.gestionevenements.modele.ParticipantObserver;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+/**
+ * Format binaire compact des événements, partagé par les stratégies qui le lisent ou l'écrivent.
+ * <p>
+ * Disposition d'un fichier :
+ * <pre>
+ * en-tête      : MAGIE (int) | VERSION (short)
+ * dictionnaire : nombre (varint) | chaînes (longueur varint + UTF-8), les plus fréquentes en premier
+ * événements   : nombre (varint) | enregistrements (longueur int + contenu)
+ * </pre>
+ * Le contenu d'un enregistrement commence par l'identifiant de l'événement en clair, ce qui permet
+ * de localiser un événement sans le décoder. Les autres chaînes (classes, noms, lieux, genres...)
+ * sont des références au dictionnaire, 0 désignant null ; les dates sont stockées en secondes
+ * depuis l'époque (UTC) suivies des nanosecondes.
+ */
+final class FormatBinaire {
+    static final int MAGIE = 0x47455642; // "GEVB"
+    static final short VERSION = 1;
+
+    private static final String CLASSE_CONCERT = Concert.class.getName();
+    private static final String CLASSE_CONFERENCE = Conference.class.getName();
+    private static final String CLASSE_PARTICIPANT = Participant.class.getName();
+    private static final String CLASSE_ORGANISATEUR = Organisateur.class.getName();
+
+    private FormatBinaire() {
+    }
+
+    // Construit le dictionnaire des chaînes des événements, trié par fréquence décroissante
+    static List<String> construireDictionnaire(Collection<Evenement> evenements) {
+        Map<String, int[]> frequences = new HashMap<>();
+        for (Evenement evenement : evenements) {
+            parcourirChaines(evenement, chaine -> {
+                if (chaine != null) {
+                    frequences.computeIfAbsent(chaine, c -> new int[1])[0]++;
+                }
+            });
+        }
+        List<Map.Entry<String, int[]>> entrees = new ArrayList<>(frequences.entrySet());
+        entrees.sort((a, b) -> Integer.compare(b.getValue()[0], a.getValue()[0]));
+        List<String> dictionnaire = new ArrayList<>(entrees.size());
+        for (Map.Entry<String, int[]> entree : entrees) {
+            dictionnaire.add(entree.getKey());
+        }
+        return dictionnaire;
+    }
+
+    // Associe à chaque chaîne du dictionnaire sa référence (décalée de 1, 0 étant réservé à null)
+    static Map<String, Integer> indexer(List<String> dictionnaire) {
+        Map<String, Integer> references = new HashMap<>(dictionnaire.size() * 2);
+        for (int i = 0; i < dictionnaire.size(); i++) {
+            references.put(dictionnaire.get(i), i + 1);
+        }
+        return references;
+    }
+
+    static void ecrireEntete(DataOutput sortie, List<String> dictionnaire, int nombreEvenements) throws IOException {
+        sortie.writeInt(MAGIE);
+        sortie.writeShort(VERSION);
+        ecrireVarint(sortie, dictionnaire.size());
+        for (String chaine : dictionnaire) {
+            ecrireChaine(sortie, chaine);
+        }
+        ecrireVarint(sortie, nombreEvenements);
+    }
+
+    // Lit l'en-tête et le dictionnaire ; le flux est ensuite positionné sur le nombre d'événements
+    static String[] lireEntete(DataInput entree) throws IOException {
+        if (entree.readInt() != MAGIE) {
+            throw new StreamCorruptedException("Ce fichier n'est pas au format binaire des événements");
+        }
+        short version = entree.readShort();
+        if (version != VERSION) {
+            throw new StreamCorruptedException("Version du format binaire non prise en charge : " + version);
+        }
+        String[] dictionnaire = new String[lireVarint(entree)];
+        for (int i = 0; i < dictionnaire.length; i++) {
+            byte[] octets = new byte[lireVarint(entree)];
+            entree.readFully(octets);
+            dictionnaire[i] = new String(octets, StandardCharsets.UTF_8);
+        }
+        return dictionnaire;
+    }
+
+    // Encode le contenu d'un enregistrement (sans sa longueur) dans le tampon fourni, vidé au préalable
+    static void encoder(Evenement evenement, Map<String, Integer> references, Tampon tampon) throws IOException {
+        tampon.reset();
+        DataOutputStream sortie = tampon.sortie;
+        ecrireChaine(sortie, evenement.getId());
+        ecrireReference(sortie, references, evenement.getClass().getName());
+        ecrireReference(sortie, references, evenement.getNom());
+        ecrireDate(sortie, evenement.getDate());
+        ecrireReference(sortie, references, evenement.getLieu());
+        ecrireVarint(sortie, evenement.getCapaciteMax());
+
+        if (evenement instanceof Concert concert) {
+            ecrireReference(sortie, references, concert.getArtiste());
+            ecrireReference(sortie, references, concert.getGenreMusical());
+        } else if (evenement instanceof Conference conference) {
+            ecrireReference(sortie, references, conference.getTheme());
+            List<String> intervenants = conference.getIntervenants();
+            ecrireVarint(sortie, intervenants.size());
+            for (String intervenant : intervenants) {
+                ecrireReference(sortie, references, intervenant);
+            }
+        } else {
+            throw new IOException("Type d'événement non pris en charge par le format binaire : "
+                    + evenement.getClass().getName());
+        }
+
+        List<Participant> participants = evenement.getParticipants();
+        ecrireVarint(sortie, participants.size());
+        for (Participant participant : participants) {
+            ecrireParticipant(sortie, references, participant);
+        }
+        List<Participant> observateurs = observateursPersistes(evenement);
+        ecrireVarint(sortie, observateurs.size());
+        for (Participant observateur : observateurs) {
+            ecrireParticipant(sortie, references, observateur);
+        }
+    }
+
+    // Lit l'identifiant placé en tête du contenu d'un enregistrement, sans décoder le reste
+    static String lireIdentifiant(ByteBuffer contenu) throws IOException {
+        try {
+            return lireChaine(contenu);
+        } catch (BufferUnderflowException e) {
+            throw new StreamCorruptedException("Enregistrement binaire tronqué ou corrompu");
+        }
+    }
+
+    // Décode le contenu complet d'un enregistrement
+    static Evenement decoder(ByteBuffer contenu, IntFunction<String> dictionnaire) throws IOException {
+        try {
+            String id = lireChaine(contenu);
+            String classe = lireReference(contenu, dictionnaire);
+            String nom = lireReference(contenu, dictionnaire);
+            LocalDateTime date = lireDate(contenu);
+            String lieu = lireReference(contenu, dictionnaire);
+            int capaciteMax = lireVarint(contenu);
+
+            Evenement evenement;
+            if (CLASSE_CONCERT.equals(classe)) {
+                evenement = new Concert(nom, date, lieu, capaciteMax,
+                        lireReference(contenu, dictionnaire), lireReference(contenu, dictionnaire));
+            } else if (CLASSE_CONFERENCE.equals(classe)) {
+                Conference conference = new Conference(nom, date, lieu, capaciteMax,
+                        lireReference(contenu, dictionnaire));
+                int nombreIntervenants = lireVarint(contenu);
+                for (int i = 0; i < nombreIntervenants; i++) {
+                    conference.ajouterIntervenant(lireReference(contenu, dictionnaire));
+                }
+                evenement = conference;
+            } else {
+                throw new StreamCorruptedException("Type d'événement inconnu : " + classe);
+            }
+
+            // Les participants et observateurs sont restaurés en dernier : aucune notification n'est émise
+            List<Participant> participants = lireParticipants(contenu, dictionnaire);
+            List<ParticipantObserver> observateurs = new ArrayList<>(lireParticipants(contenu, dictionnaire));
+            evenement.restaurer(id, nom, date, lieu, capaciteMax, participants, observateurs);
+            return evenement;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new StreamCorruptedException("Enregistrement binaire tronqué ou corrompu");
+        }
+    }
+
+    // Seuls les participants et organisateurs sont persistés parmi les observateurs, comme en JSON
+    private static List<Participant> observateursPersistes(Evenement evenement) {
+        List<Participant> observateurs = new ArrayList<>();
+        for (ParticipantObserver observateur : evenement.getObservateursPersistes()) {
+            if (observateur instanceof Participant participant) {
+                observateurs.add(participant);
+            }
+        }
+        return observateurs;
+    }
+
+    private static void parcourirChaines(Evenement evenement, Consumer<String> consommateur) {
+        consommateur.accept(evenement.getClass().getName());
+        consommateur.accept(evenement.getNom());
+        consommateur.accept(evenement.getLieu());
+        if (evenement instanceof Concert concert) {
+            consommateur.accept(concert.getArtiste());
+            consommateur.accept(concert.getGenreMusical());
+        } else if (evenement instanceof Conference conference) {
+            consommateur.accept(conference.getTheme());
+            conference.getIntervenants().forEach(consommateur);
+        }
+        for (Participant participant : evenement.getParticipants()) {
+            parcourirChaines(participant, consommateur);
+        }
+        for (Participant observateur : observateursPersistes(evenement)) {
+            parcourirChaines(observateur, consommateur);
+        }
+    }
+
+    private static void parcourirChaines(Participant participant, Consumer<String> consommateur) {
+        consommateur.accept(participant.getClass().getName());
+        consommateur.accept(participant.getId());
+        consommateur.accept(participant.getNom());
+        consommateur.accept(participant.getEmail());
+    }
+
+    private static void ecrireParticipant(DataOutput sortie, Map<String, Integer> references, Participant participant)
+            throws IOException {
+        ecrireReference(sortie, references, participant.getClass().getName());
+        ecrireReference(sortie, references, participant.getId());
+        ecrireReference(sortie, references, participant.getNom());
+        ecrireReference(sortie, references, participant.getEmail());
+    }
+
+    private static List<Participant> lireParticipants(ByteBuffer contenu, IntFunction<String> dictionnaire) throws IOException {
+        int nombre = lireVarint(contenu);
+        List<Participant> participants = new ArrayList<>(nombre);
+        for (int i = 0; i < nombre; i++) {
+            String classe = lireReference(contenu, dictionnaire);
+            String id = lireReference(contenu, dictionnaire);
+            String nom = lireReference(contenu, dictionnaire);
+            String email = lireReference(contenu, dictionnaire);
+            if (CLASSE_ORGANISATEUR.equals(classe)) {
+                participants.add(new Organisateur(id, nom, email));
+            } else if (CLASSE_PARTICIPANT.equals(classe)) {
+                participants.add(new Participant(id, nom, email));
+            } else {
+                throw new StreamCorruptedException("Type de participant inconnu : " + classe);
+            }
+        }
+        return participants;
+    }
+
+    private static void ecrireDate(DataOutput sortie, LocalDateTime date) throws IOException {
+        sortie.writeBoolean(date != null);
+        if (date != null) {
+            sortie.writeLong(date.toEpochSecond(ZoneOffset.UTC));
+            ecrireVarint(sortie, date.getNano());
+        }
+    }
+
+    private static LocalDateTime lireDate(ByteBuffer contenu) throws IOException {
+        if (contenu.get() == 0) {
+            return null;
+        }
+        long secondes = contenu.getLong();
+        return LocalDateTime.ofEpochSecond(secondes, lireVarint(contenu), ZoneOffset.UTC);
+    }
+
+    private static void ecrireReference(DataOutput sortie, Map<String, Integer> references, String chaine)
+            throws IOException {
+        ecrireVarint(sortie, chaine == null ? 0 : references.get(chaine));
+    }
+
+    private static String lireReference(ByteBuffer contenu, IntFunction<String> dictionnaire) throws IOException {
+        int reference = lireVarint(contenu);
+        return reference == 0 ? null : dictionnaire.apply(reference - 1);
+    }
+
+    private static void ecrireChaine(DataOutput sortie, String chaine) throws IOException {
+        byte[] octets = chaine.getBytes(StandardCharsets.UTF_8);
+        ecrireVarint(sortie, octets.length);
+        sortie.write(octets);
+    }
+
+    static String lireChaine(ByteBuffer contenu) throws IOException {
+        int longueur = lireVarint(contenu);
+        if (longueur > contenu.remaining()) {
+            throw new StreamCorruptedException("Chaîne binaire tronquée");
+        }
+        byte[] octets = new byte[longueur];
+        contenu.get(octets);
+        return new String(octets, StandardCharsets.UTF_8);
+    }
+
+    // Entier positif sur 7 bits par octet, le bit de poids fort indiquant qu'un octet suit
+    static void ecrireVarint(DataOutput sortie, int valeur) throws IOException {
+        if (valeur < 0) {
+            throw new IOException("Valeur négative non encodable : " + valeur);
+        }
+        while ((valeur & ~0x7F) != 0) {
+            sortie.writeByte((valeur & 0x7F) | 0x80);
+            valeur >>>= 7;
+        }
+        sortie.writeByte(valeur);
+    }
+
+    static int lireVarint(DataInput entree) throws IOException {
+        int valeur = 0;
+        for (int decalage = 0; decalage < 32; decalage += 7) {
+            byte octet = entree.readByte();
+            valeur |= (octet & 0x7F) << decalage;
+            if ((octet & 0x80) == 0) {
+                return valeur;
+            }
+        }
+        throw new StreamCorruptedException("Entier variable trop long");
+    }
+
+    static int lireVarint(ByteBuffer contenu) throws IOException {
+        int valeur = 0;
+        for (int decalage = 0; decalage < 32; decalage += 7) {
+            byte octet = contenu.get();
+            valeur |= (octet & 0x7F) << decalage;
+            if ((octet & 0x80) == 0) {
+                return valeur;
+            }
+        }
+        throw new StreamCorruptedException("Entier variable trop long");
+    }
+
+    // Tampon d'encodage réutilisé d'un enregistrement à l'autre, sans synchronisation octet par octet
+    static final class Tampon extends ByteArrayOutputStream {
+        final DataOutputStream sortie = new DataOutputStream(this);
+
+        Tampon(int taille) {
+            super(taille);
+        }
+
+        @Override
+        public void write(int octet) {
+            if (count == buf.length) {
+                buf = Arrays.copyOf(buf, buf.length * 2);
+            }
+            buf[count++] = (byte) octet;
+        }
+
+        @Override
+        public void write(byte[] octets, int debut, int longueur) {
+            if (count + longueur > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length * 2, count + longueur));
+            }
+            System.arraycopy(octets, debut, buf, count, longueur);
+            count += longueur;
+        }
+    }
+}
@@ -1,75 +1,126 @@
 package fr.gestionevenements.serialisation;
 
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import fr.gestionevenements.modele.Evenement;
 
+import java.io.BufferedInputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * Implémentation de la stratégie de sérialisation/désérialisation au format JSON.
  * Utilise Jackson pour gérer la persistance des événements avec prise en charge des types Java 8 (LocalDateTime).
  */
 public class JSONSerializationStrategy implements SerializationStrategy {
-    private final ObjectMapper objectMapper;
+    // Taille du tampon d'écriture sur le canal du fichier
+    private static final int TAILLE_TAMPON = 64 * 1024;
+
+    // Mapper partagé par toutes les instances : ses caches de sérialiseurs ne sont construits qu'une fois.
+    // Le typage polymorphe vient uniquement des @JsonTypeInfo/@JsonSubTypes d'Evenement et de ParticipantObserver.
+    private static final ObjectMapper MAPPER = new ObjectMapper().registerModule(new JavaTimeModule());
+    // Écrivain et lecteur immuables, partagés entre threads ; pas de vidage du flux après chaque événement
+    private static final ObjectWriter ECRIVAIN_EVENEMENT = MAPPER.writerFor(Evenement.class)
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    private static final ObjectReader LECTEUR_EVENEMENT = MAPPER.readerFor(Evenement.class);
+    // Type racine écrit par les versions utilisant le typage par défaut (collections enveloppées de leur type)
+    private static final String RACINE_FORMAT_HERITE = HashMap.class.getName();
+
+    // Fixé à la construction : une instance partagée (voir RegistreStrategies) reste sans état modifiable
+    private final boolean diagnostic;
+
+    public JSONSerializationStrategy() {
+        this(false);
+    }
+
+    private JSONSerializationStrategy(boolean diagnostic) {
+        this.diagnostic = diagnostic;
+    }
 
     /**
-     * Constructeur initialisant l'ObjectMapper avec le module JavaTimeModule pour gérer LocalDateTime.
+     * Retourne une nouvelle stratégie qui affiche sur la sortie standard le JSON écrit et les événements lus
+     * (diagnostic). L'instance courante n'est pas modifiée.
+     * @return Stratégie JSON avec diagnostic.
      */
-    public JSONSerializationStrategy() {
-        this.objectMapper = new ObjectMapper()
-                .registerModule(new JavaTimeModule());
-        objectMapper.activateDefaultTyping(
-                objectMapper.getPolymorphicTypeValidator(),
-                ObjectMapper.DefaultTyping.NON_FINAL,
-                JsonTypeInfo.As.PROPERTY
-        );// Ajout du module pour supporter LocalDateTime
-        // Les annotations @JsonTypeInfo et @JsonSubTypes sur Evenement gèrent la polymorphie
+    public JSONSerializationStrategy avecDiagnostic() {
+        return new JSONSerializationStrategy(true);
     }
 
     /**
      * Sérialise une map d'événements dans un fichier JSON.
+     * Le fichier est remplacé atomiquement : une sauvegarde interrompue ne laisse jamais de fichier tronqué.
      * @param evenements Map contenant les événements à sérialiser.
      * @param fichier Chemin du fichier de sortie.
+     * @throws UncheckedIOException si l'écriture échoue (l'ancien fichier est alors conservé).
      */
     @Override
     public void serialiser(Map<String, Evenement> evenements, String fichier) {
         try {
             File file = new File(fichier);
-            File repertoireParent = file.getParentFile();
-
-            // Création du répertoire parent s'il n'existe pas
-            if (repertoireParent != null && !repertoireParent.exists()) {
-                boolean cree = repertoireParent.mkdirs();
-                if (!cree) {
-                    System.err.println("⚠ Impossible de créer le répertoire: " + repertoireParent.getAbsolutePath());
-                    return; // Arrêt si le répertoire ne peut pas être créé
-                }
-            }
-
-            // Sérialisation avec gestion des types polymorphiques
-            objectMapper.writerWithDefaultPrettyPrinter().writeValue(file, evenements);
+            EcritureAtomique.ecrire(file.toPath(), sortie -> ecrire(evenements, sortie));
             System.out.println("✓ Sérialisation réussie: " + evenements.size() + " événements sauvegardés dans " + fichier);
             System.out.println("  Taille du fichier: " + file.length() + " bytes");
 
-            // Debug: Affichage du contenu JSON généré
-            String jsonContent = objectMapper.writeValueAsString(evenements);
-            System.out.println("Contenu JSON généré : " + jsonContent);
+            // Diagnostic optionnel : le contenu est réécrit en flux sur la console, sans chaîne intermédiaire
+            if (diagnostic) {
+                System.out.println("Contenu JSON généré : ");
+                ecrire(evenements, new FilterOutputStream(System.out) {
+                    @Override
+                    public void close() {
+                        // La sortie standard ne doit pas être fermée
+                    }
+                });
+                System.out.println();
+            }
 
         } catch (IOException e) {
             System.err.println("✗ Erreur lors de la sérialisation JSON: " + e.getMessage());
-            e.printStackTrace();
+            throw new UncheckedIOException("Échec de la sauvegarde dans " + fichier, e);
+        }
+    }
+
+    /**
+     * Écrit les événements en flux, un par un, sans construire le document complet en mémoire.
+     * Le format produit est celui d'une sérialisation de la map, sans type racine ni enveloppe de type des listes.
+     * @param evenements Map contenant les événements à écrire.
+     * @param sortie Flux de destination, qui n'est pas fermé.
+     */
+    @Override
+    public void ecrire(Map<String, Evenement> evenements, OutputStream sortie) throws IOException {
+        try (JsonGenerator generateur = MAPPER.getFactory().createGenerator(sortie)) {
+            generateur.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generateur.useDefaultPrettyPrinter();
+            generateur.writeStartObject();
+            for (Map.Entry<String, Evenement> entree : evenements.entrySet()) {
+                generateur.writeFieldName(entree.getKey());
+                ECRIVAIN_EVENEMENT.writeValue(generateur, entree.getValue());
+            }
+            generateur.writeEndObject();
         }
     }
 
     /**
      * Désérialise un fichier JSON en une map d'événements.
      * @param fichier Chemin du fichier JSON à lire.
-     * @return Map contenant les événements désérialisés, ou une map vide en cas d'erreur.
+     * @return Map contenant les événements désérialisés, vide si le fichier n'existe pas ou est vide.
+     * @throws UncheckedIOException si le fichier est illisible ou incomplet : il n'est jamais pris pour un catalogue vide.
      */
     @Override
     public Map<String, Evenement> deserialiser(String fichier) {
@@ -87,30 +138,78 @@ public class JSONSerializationStrategy implements SerializationStrategy {
 
             System.out.println("📁 Lecture du fichier: " + fichier + " (" + file.length() + " bytes)");
 
-            // Désérialisation avec prise en charge des types polymorphiques
-            Map<String, Evenement> evenements = objectMapper.readValue(
-                    file,
-                    objectMapper.getTypeFactory().constructMapType(
-                            Map.class, String.class, Evenement.class
-                    )
-            );
+            // Lecture en flux : les événements sont ajoutés à la map au fur et à mesure
+            Map<String, Evenement> evenements = new HashMap<>();
+            try (InputStream entree = new BufferedInputStream(new FileInputStream(file), TAILLE_TAMPON)) {
+                lire(entree, evenement -> {
+                    evenements.put(evenement.getId(), evenement);
+                    if (diagnostic) {
+                        System.out.println("  - " + evenement.getId() + ": " + evenement.getClass().getSimpleName() +
+                                " - Nom: " + evenement.getNom() + ", Date: " + evenement.getDate() +
+                                ", Lieu: " + evenement.getLieu() +
+                                ", Participants: " + evenement.getParticipants().size());
+                    }
+                });
+            }
 
             System.out.println("✓ Désérialisation réussie: " + evenements.size() + " événements chargés");
-
-            // Affichage des détails pour débogage
-            evenements.forEach((key, event) -> {
-                System.out.println("  - " + key + ": " + event.getClass().getSimpleName() +
-                        " - Nom: " + event.getNom() + ", Date: " + event.getDate() +
-                        ", Lieu: " + event.getLieu() +
-                        ", Participants: " + (event.getParticipants() != null ? event.getParticipants().size() : 0));
-            });
-
             return evenements;
 
         } catch (IOException e) {
             System.err.println("✗ Erreur lors de la désérialisation JSON: " + e.getMessage());
-            e.printStackTrace();
-            return new HashMap<>();
+            throw new UncheckedIOException("Fichier " + fichier + " illisible ou incomplet", e);
+        }
+    }
+
+    /**
+     * Lit en flux un document JSON produit par {@link #ecrire} : chaque événement est désérialisé
+     * puis transmis au consommateur avant la lecture du suivant, sans charger le document entier.
+     * @param entree Flux à lire, qui n'est pas fermé.
+     * @param consommateur Reçoit chaque événement lu.
+     */
+    @Override
+    public void lire(InputStream entree, Consumer<Evenement> consommateur) throws IOException {
+        try (JsonParser parseur = MAPPER.getFactory().createParser(entree)) {
+            parseur.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            if (parseur.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parseur, "Un objet JSON d'événements est attendu");
+            }
+            ObjectReader lecteur = LECTEUR_EVENEMENT;
+            while (parseur.nextToken() == JsonToken.FIELD_NAME) {
+                String cle = parseur.currentName();
+                parseur.nextToken();
+                // Type de la map racine : présent uniquement dans les fichiers au format hérité
+                if ("@class".equals(cle)) {
+                    if (RACINE_FORMAT_HERITE.equals(parseur.getText())) {
+                        lecteur = FormatHerite.LECTEUR_EVENEMENT;
+                    }
+                    continue;
+                }
+                consommateur.accept(lecteur.readValue(parseur));
+            }
+            if (parseur.currentToken() != JsonToken.END_OBJECT) {
+                throw new JsonParseException(parseur, "Fin de document JSON inattendue");
+            }
+        }
+    }
+
+    /*
+     * Lecteur des fichiers écrits avec le typage par défaut (NON_FINAL), construit seulement à la première
+     * lecture d'un tel fichier. Les types acceptés sont limités au modèle et aux collections de java.util.
+     */
+    private static final class FormatHerite {
+        private static final ObjectReader LECTEUR_EVENEMENT;
+
+        static {
+            ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+            mapper.activateDefaultTyping(
+                    BasicPolymorphicTypeValidator.builder()
+                            .allowIfSubType("fr.gestionevenements.modele.")
+                            .allowIfSubType("java.util.")
+                            .build(),
+                    ObjectMapper.DefaultTyping.NON_FINAL,
+                    JsonTypeInfo.As.PROPERTY);
+            LECTEUR_EVENEMENT = mapper.readerFor(Evenement.class);
         }
     }
-}
\ No newline at end of file
+}
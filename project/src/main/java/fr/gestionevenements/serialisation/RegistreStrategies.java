@@ -0,0 +1,96 @@
+package fr.gestionevenements.serialisation;
+
+import fr.gestionevenements.modele.Concert;
+import fr.gestionevenements.modele.Conference;
+import fr.gestionevenements.modele.Evenement;
+import fr.gestionevenements.modele.Organisateur;
+import fr.gestionevenements.modele.Participant;
+import fr.gestionevenements.modele.ParticipantObserver;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stratégies de sérialisation partagées par toute l'application, une par format et par compression.
+ * Elles sont sans état et sûres entre threads : les réutiliser conserve les caches de sérialiseurs Jackson
+ * au lieu de les reconstruire à chaque sauvegarde ou chargement.
+ */
+public final class RegistreStrategies {
+
+    public enum Format {
+        JSON(".json"),
+        BINAIRE(".bin");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    private static final Map<Format, Map<Compression, SerializationStrategy>> STRATEGIES = new EnumMap<>(Format.class);
+
+    static {
+        for (Format format : Format.values()) {
+            SerializationStrategy base = format == Format.JSON
+                    ? new JSONSerializationStrategy() : new BinarySerializationStrategy();
+            Map<Compression, SerializationStrategy> parCompression = new EnumMap<>(Compression.class);
+            for (Compression compression : Compression.values()) {
+                parCompression.put(compression, compression == Compression.AUCUNE
+                        ? base : new CompressedSerializationStrategy(base, compression));
+            }
+            STRATEGIES.put(format, parCompression);
+        }
+    }
+
+    private RegistreStrategies() {
+    }
+
+    //Stratégie partagée pour un format et une compression
+    public static SerializationStrategy obtenir(Format format, Compression compression) {
+        if (format == null || compression == null) {
+            throw new IllegalArgumentException("Le format et la compression sont obligatoires");
+        }
+        return STRATEGIES.get(format).get(compression);
+    }
+
+    /*
+     * Écrit puis relit en mémoire un événement de chaque type avec chaque format, afin que les sérialiseurs
+     * et désérialiseurs soient construits avant la première sauvegarde ou le premier chargement réel.
+     */
+    public static void prechauffer() {
+        Map<String, Evenement> exemples = new HashMap<>();
+        LocalDateTime date = LocalDateTime.now();
+        Participant participant = new Participant("Participant", "participant@exemple.fr");
+        List<ParticipantObserver> observateurs = List.of(participant, new Organisateur("Organisateur", "orga@exemple.fr"));
+        Concert concert = new Concert("Concert", date, "Lieu", 1, "Artiste", "Genre");
+        concert.restaurer(concert.getId(), "Concert", date, "Lieu", 1, List.of(participant), observateurs);
+        Conference conference = new Conference("Conférence", date, "Lieu", 1, "Thème");
+        conference.ajouterIntervenant("Intervenant");
+        conference.restaurer(conference.getId(), "Conférence", date, "Lieu", 1, List.of(participant), observateurs);
+        exemples.put(concert.getId(), concert);
+        exemples.put(conference.getId(), conference);
+
+        try {
+            for (Format format : Format.values()) {
+                SerializationStrategy strategie = obtenir(format, Compression.AUCUNE);
+                ByteArrayOutputStream sortie = new ByteArrayOutputStream();
+                strategie.ecrire(exemples, sortie);
+                strategie.lire(new ByteArrayInputStream(sortie.toByteArray()), evenement -> { });
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Préchauffage des stratégies de sérialisation impossible", e);
+        }
+    }
+}
@@ -1,11 +1,22 @@
 package fr.gestionevenements.serialisation;
 
 import fr.gestionevenements.modele.Evenement;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.Map;
+import java.util.function.Consumer;
 
 public interface SerializationStrategy {
 
     void serialiser(Map<String, Evenement> evenements, String fichier);
 
     Map<String, Evenement> deserialiser(String fichier);
+
+    //Écrit les événements dans un flux ouvert par l'appelant (qui reste responsable de sa fermeture)
+    void ecrire(Map<String, Evenement> evenements, OutputStream sortie) throws IOException;
+
+    //Lit les événements d'un flux et les transmet un par un au consommateur, au fil de la lecture
+    void lire(InputStream entree, Consumer<Evenement> consommateur) throws IOException;
 }
\ No newline at end of file
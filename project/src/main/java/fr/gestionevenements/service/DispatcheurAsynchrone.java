@@ -0,0 +1,115 @@
+package fr.gestionevenements.service;
+
+import fr.gestionevenements.modele.ParticipantObserver;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Distribution asynchrone des notifications.
+ * Chaque observateur dispose d'une boîte aux lettres vidée par une seule tâche à la fois,
+ * ce qui préserve l'ordre des messages par observateur. Les tâches s'exécutent sur un exécuteur
+ * dédié (threads virtuels par défaut). Le nombre de messages en attente est borné : lorsque la file
+ * est pleine, l'appelant est bloqué jusqu'à ce que des messages aient été livrés.
+ * Une boîte vidée est retirée : le dispatcheur ne retient pas les observateurs sans message en attente.
+ */
+public class DispatcheurAsynchrone implements DispatcheurNotifications, AutoCloseable {
+    private final ExecutorService executor;
+    private final Semaphore placesDisponibles;
+    private final Map<ParticipantObserver, BoiteAuxLettres> boites = new ConcurrentHashMap<>();
+
+    public DispatcheurAsynchrone(int capaciteFile) {
+        this(capaciteFile, Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    public DispatcheurAsynchrone(int capaciteFile, ExecutorService executor) {
+        if (capaciteFile <= 0) {
+            throw new IllegalArgumentException("La capacité de la file doit être positive");
+        }
+        this.placesDisponibles = new Semaphore(capaciteFile);
+        this.executor = executor;
+    }
+
+    @Override
+    public void distribuer(ParticipantObserver observateur, String message) {
+        // Contre-pression : attente d'une place libre dans la file
+        placesDisponibles.acquireUninterruptibly();
+        // Le dépôt se fait sous le verrou de la clé : une boîte n'est jamais retirée avec un message non livré
+        BoiteAuxLettres boite = boites.compute(observateur, (cle, existante) -> {
+            BoiteAuxLettres destination = existante != null ? existante : new BoiteAuxLettres(cle);
+            destination.messages.add(message);
+            return destination;
+        });
+        boite.planifier();
+    }
+
+    //Nombre de messages en attente de livraison
+    public int getMessagesEnAttente() {
+        int total = 0;
+        for (BoiteAuxLettres boite : boites.values()) {
+            total += boite.messages.size();
+        }
+        return total;
+    }
+
+    //Nombre d'observateurs ayant encore une boîte aux lettres (messages en attente ou en cours de livraison)
+    public int getObservateursEnAttente() {
+        return boites.size();
+    }
+
+    //Attend la livraison des messages en attente puis arrête l'exécuteur
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                System.err.println("⚠ Des notifications n'ont pas pu être livrées avant l'arrêt");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private final class BoiteAuxLettres {
+        private final ParticipantObserver observateur;
+        private final Queue<String> messages = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean planifiee = new AtomicBoolean();
+
+        private BoiteAuxLettres(ParticipantObserver observateur) {
+            this.observateur = observateur;
+        }
+
+        private void planifier() {
+            if (planifiee.compareAndSet(false, true)) {
+                executor.execute(this::vider);
+            }
+        }
+
+        private void vider() {
+            do {
+                String message;
+                while ((message = messages.poll()) != null) {
+                    try {
+                        observateur.mettreAJour(message);
+                    } catch (RuntimeException e) {
+                        System.err.println("✗ Erreur lors de la notification d'un observateur: " + e.getMessage());
+                    } finally {
+                        placesDisponibles.release();
+                    }
+                }
+                planifiee.set(false);
+                // Un message arrivé entre le dernier poll et la libération doit être repris ici
+            } while (!messages.isEmpty() && planifiee.compareAndSet(false, true));
+            // Boîte vide et sans tâche active : retirée, sauf si un message vient d'y être déposé
+            boites.computeIfPresent(observateur, (cle, boite) ->
+                    boite == this && messages.isEmpty() && !planifiee.get() ? null : boite);
+        }
+    }
+}
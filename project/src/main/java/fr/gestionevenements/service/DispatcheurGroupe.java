@@ -0,0 +1,107 @@
+package fr.gestionevenements.service;
+
+import fr.gestionevenements.modele.ParticipantObserver;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Étage de regroupement placé entre les événements et un dispatcheur de livraison.
+ * Les messages destinés à un même observateur sont accumulés pendant une fenêtre de temps
+ * (ou jusqu'à un seuil de taille) puis livrés en un seul récapitulatif.
+ */
+public class DispatcheurGroupe implements DispatcheurNotifications, AutoCloseable {
+    private final DispatcheurNotifications livraison;
+    private final Duration fenetre;
+    private final int seuil;
+    private final Map<ParticipantObserver, Lot> lots = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService minuterie = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("regroupement-notifications").daemon().factory());
+
+    public DispatcheurGroupe(DispatcheurNotifications livraison, Duration fenetre, int seuil) {
+        if (seuil <= 0) {
+            throw new IllegalArgumentException("Le seuil de regroupement doit être positif");
+        }
+        this.livraison = livraison;
+        this.fenetre = fenetre;
+        this.seuil = seuil;
+    }
+
+    @Override
+    public void distribuer(ParticipantObserver observateur, String message) {
+        while (true) {
+            Lot lot = lots.computeIfAbsent(observateur, Lot::new);
+            boolean complet;
+            synchronized (lot) {
+                if (lot.ferme) {
+                    // Lot en cours de livraison : un nouveau lot est créé au prochain tour
+                    continue;
+                }
+                lot.messages.add(message);
+                if (lot.messages.size() == 1) {
+                    minuterie.schedule(() -> livrer(lot), fenetre.toMillis(), TimeUnit.MILLISECONDS);
+                }
+                complet = lot.messages.size() >= seuil;
+            }
+            if (complet) {
+                livrer(lot);
+            }
+            return;
+        }
+    }
+
+    //Livre immédiatement tous les lots en attente
+    public void vider() {
+        for (Lot lot : lots.values()) {
+            livrer(lot);
+        }
+    }
+
+    @Override
+    public void close() {
+        minuterie.shutdownNow();
+        vider();
+    }
+
+    private void livrer(Lot lot) {
+        List<String> messages;
+        synchronized (lot) {
+            if (lot.ferme) {
+                return;
+            }
+            lot.ferme = true;
+            lots.remove(lot.observateur, lot);
+            messages = lot.messages;
+        }
+        livraison.distribuer(lot.observateur, resumer(messages));
+    }
+
+    // Partagé avec l'outbox, qui regroupe de la même manière les notifications d'un destinataire
+    static String resumer(List<String> messages) {
+        if (messages.size() == 1) {
+            return messages.get(0);
+        }
+        StringBuilder resume = new StringBuilder("Récapitulatif de ")
+                .append(messages.size()).append(" notifications :");
+        for (String message : messages) {
+            resume.append("\n- ").append(message);
+        }
+        return resume.toString();
+    }
+
+    private static final class Lot {
+        private final ParticipantObserver observateur;
+        private final List<String> messages = new ArrayList<>();
+        private boolean ferme;
+
+        private Lot(ParticipantObserver observateur) {
+            this.observateur = observateur;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package fr.gestionevenements.service;
+
+import fr.gestionevenements.modele.ParticipantObserver;
+
+//Stratégie de distribution des notifications d'un événement à ses observateurs.
+public interface DispatcheurNotifications {
+
+    //Distribution directe sur le thread appelant (comportement historique)
+    DispatcheurNotifications SYNCHRONE = ParticipantObserver::mettreAJour;
+
+    //Transmet un message à un observateur
+    void distribuer(ParticipantObserver observateur, String message);
+}
@@ -0,0 +1,19 @@
+package fr.gestionevenements.service;
+
+import java.time.LocalDateTime;
+
+//Notification adressée à un destinataire (nom et email), horodatée à sa création.
+public record Notification(String nom, String email, String message, boolean prioritaire, LocalDateTime horodatage) {
+
+    public Notification(String nom, String email, String message, boolean prioritaire) {
+        this(nom, email, message, prioritaire, LocalDateTime.now());
+    }
+
+    //Texte de la notification tel qu'affiché historiquement sur la console
+    public String formater() {
+        if (prioritaire) {
+            return "Notification PRIORITAIRE à l'organisateur " + nom + " (" + email + "): " + message;
+        }
+        return "Notification à " + nom + " (" + email + "): " + message;
+    }
+}
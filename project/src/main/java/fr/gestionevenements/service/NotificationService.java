@@ -4,4 +4,9 @@ package fr.gestionevenements.service;
 public interface NotificationService {
     //Envoie une notification avec un message spécifique
     void envoyerNotification(String message);
-}
\ No newline at end of file
+
+    //Envoie une notification adressée à un destinataire
+    default void envoyerNotification(Notification notification) {
+        envoyerNotification(notification.formater());
+    }
+}
@@ -0,0 +1,432 @@
+package fr.gestionevenements.service;
+
+import fr.gestionevenements.modele.ParticipantObserver;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Boîte d'envoi persistante garantissant une livraison « au moins une fois ».
+ * Chaque notification est ajoutée à un fichier journal (outbox.log) du répertoire de données dès sa création,
+ * puis un worker la relit et la transmet au transport. Utilisée comme dispatcheur des événements
+ * ({@link fr.gestionevenements.modele.Evenement#setDispatcheurNotifications}) et par
+ * GestionEvenements.envoyerNotificationAsync, elle remplace les étapes en mémoire : le délai d'envoi et le
+ * regroupement par destinataire sont appliqués par le worker, à partir de l'échéance enregistrée avec chaque
+ * notification. Un arrêt brutal avant la livraison ne perd donc rien. La position de la première notification non livrée
+ * est conservée dans outbox.curseur : seul un lot à la fois est chargé en mémoire, quel que soit le nombre
+ * de notifications en attente. Un lot en échec est retenté avec un délai exponentiel ; après le nombre
+ * maximal de tentatives, il est déplacé dans outbox.echecs pour ne pas bloquer les suivants.
+ */
+public class OutboxNotifications implements NotificationService, DispatcheurNotifications, AutoCloseable {
+    private static final String JOURNAL = "outbox.log";
+    private static final String CURSEUR = "outbox.curseur";
+    private static final String ECHECS = "outbox.echecs";
+
+    private final TransportNotification transport;
+    private final Path fichierCurseur;
+    private final Path fichierEchecs;
+    private final FileChannel journal;
+    private final int tailleLot;
+    private final int tentativesMax;
+    private final Duration delaiInitial;
+    private final Duration delaiMax;
+    private final boolean synchroniserDisque;
+    private final Object verrou = new Object();
+    private final Thread worker;
+    // Tampon de lecture réservé au worker
+    private final ByteBuffer tampon = ByteBuffer.allocate(64 * 1024);
+
+    private long curseur;
+    private volatile boolean actif = true;
+    // Fenêtre de regroupement ajoutée à l'échéance de chaque notification (aucun regroupement si nulle)
+    private volatile Duration fenetreRegroupement = Duration.ZERO;
+
+    public OutboxNotifications(Path repertoireDonnees, TransportNotification transport) throws IOException {
+        this(repertoireDonnees, transport, 100, 10, Duration.ofMillis(200), Duration.ofMinutes(1), true);
+    }
+
+    public OutboxNotifications(Path repertoireDonnees, TransportNotification transport, int tailleLot,
+                               int tentativesMax, Duration delaiInitial, Duration delaiMax,
+                               boolean synchroniserDisque) throws IOException {
+        Files.createDirectories(repertoireDonnees);
+        this.transport = transport;
+        this.tailleLot = tailleLot;
+        this.tentativesMax = tentativesMax;
+        this.delaiInitial = delaiInitial;
+        this.delaiMax = delaiMax;
+        this.synchroniserDisque = synchroniserDisque;
+        this.fichierCurseur = repertoireDonnees.resolve(CURSEUR);
+        this.fichierEchecs = repertoireDonnees.resolve(ECHECS);
+        this.journal = FileChannel.open(repertoireDonnees.resolve(JOURNAL),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        tronquerLigneIncomplete(journal);
+        // Reprise après redémarrage : les notifications au-delà du curseur sont à nouveau livrées
+        long curseurEnregistre = Files.exists(fichierCurseur)
+                ? Long.parseLong(Files.readString(fichierCurseur).trim())
+                : 0;
+        // Un curseur au-delà de la fin du journal (journal tronqué par une version antérieure) repart du début
+        this.curseur = curseurEnregistre > journal.size() ? 0 : curseurEnregistre;
+        this.worker = Thread.ofPlatform().name("outbox-notifications").daemon().start(this::livrer);
+    }
+
+    @Override
+    public void envoyerNotification(String message) {
+        envoyerNotification(new Notification(null, null, message, false));
+    }
+
+    //Enregistre durablement la notification ; la livraison a lieu ensuite en arrière-plan
+    @Override
+    public void envoyerNotification(Notification notification) {
+        deposer(notification, Duration.ZERO);
+    }
+
+    //Enregistre la notification d'un observateur ; un observateur sans adresse est notifié directement
+    @Override
+    public void distribuer(ParticipantObserver observateur, String message) {
+        Notification notification = observateur.creerNotification(message);
+        if (notification == null) {
+            observateur.mettreAJour(message);
+            return;
+        }
+        deposer(notification, Duration.ZERO);
+    }
+
+    /**
+     * Enregistre durablement une notification à livrer après un délai. Le délai est compté par le worker à partir
+     * de l'échéance enregistrée : il est respecté après un redémarrage.
+     * @param notification Notification à livrer.
+     * @param delai Délai minimal avant la livraison (s'ajoute à la fenêtre de regroupement).
+     */
+    public void deposer(Notification notification, Duration delai) {
+        LocalDateTime echeance = LocalDateTime.now().plus(delai).plus(fenetreRegroupement);
+        ByteBuffer ligne = ByteBuffer.wrap((encoder(notification, echeance) + "\n").getBytes(StandardCharsets.UTF_8));
+        synchronized (verrou) {
+            try {
+                journal.position(journal.size());
+                while (ligne.hasRemaining()) {
+                    journal.write(ligne);
+                }
+                if (synchroniserDisque) {
+                    journal.force(false);
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("Impossible d'enregistrer la notification dans l'outbox", e);
+            }
+            verrou.notifyAll();
+        }
+    }
+
+    /**
+     * Regroupe les notifications d'un même destinataire : chacune attend la fenêtre donnée avant d'être livrable,
+     * celles créées pendant la fenêtre de la première sont livrées avec elle, et les notifications d'un même
+     * destinataire d'un lot sont transmises en un seul récapitulatif.
+     * @param fenetre Durée de la fenêtre ; nulle pour livrer chaque notification séparément.
+     */
+    public void setFenetreRegroupement(Duration fenetre) {
+        if (fenetre == null || fenetre.isNegative()) {
+            throw new IllegalArgumentException("La fenêtre de regroupement doit être positive ou nulle");
+        }
+        this.fenetreRegroupement = fenetre;
+    }
+
+    //Nombre d'octets du journal restant à livrer
+    public long getOctetsEnAttente() throws IOException {
+        synchronized (verrou) {
+            return journal.size() - curseur;
+        }
+    }
+
+    //Arrête le worker après la livraison des notifications déjà enregistrées (ou à l'expiration du délai)
+    public void close(Duration attenteMax) throws IOException {
+        long limite = System.nanoTime() + attenteMax.toNanos();
+        synchronized (verrou) {
+            while (journal.size() > curseur && System.nanoTime() < limite) {
+                try {
+                    verrou.wait(50);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            actif = false;
+            verrou.notifyAll();
+        }
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        journal.close();
+        transport.close();
+    }
+
+    @Override
+    public void close() throws IOException {
+        close(Duration.ofSeconds(30));
+    }
+
+    private void livrer() {
+        int tentatives = 0;
+        while (actif) {
+            try {
+                Lot lot = lireLot();
+                if (lot.notifications().isEmpty()) {
+                    // Le lot ne contenait que des lignes illisibles
+                    if (lot.fin() != lireCurseur()) {
+                        mettreALEcart(lot.illisibles());
+                        avancerCurseur(lot.fin());
+                    } else if (lot.prochaineEcheance() != null) {
+                        attendre(Duration.between(LocalDateTime.now(), lot.prochaineEcheance()));
+                    } else {
+                        attendreNouvellesNotifications();
+                    }
+                    continue;
+                }
+                try {
+                    transport.transmettre(fenetreRegroupement.isZero()
+                            ? lot.notifications() : regrouper(lot.notifications()));
+                } catch (IOException | RuntimeException e) {
+                    tentatives++;
+                    if (tentatives < tentativesMax) {
+                        System.err.println("⚠ Échec de livraison (tentative " + tentatives + "): " + e.getMessage());
+                        attendre(delaiAvantTentative(tentatives));
+                        continue;
+                    }
+                    System.err.println("✗ Lot abandonné après " + tentatives + " tentatives, déplacé dans " + ECHECS);
+                    Files.write(fichierEchecs, lot.lignes(), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                }
+                tentatives = 0;
+                mettreALEcart(lot.illisibles());
+                avancerCurseur(lot.fin());
+            } catch (IOException | RuntimeException e) {
+                // Le worker ne doit jamais s'arrêter : l'outbox cesserait de livrer sans le signaler
+                System.err.println("✗ Erreur d'accès à l'outbox: " + e.getMessage());
+                attendre(delaiMax);
+            }
+        }
+    }
+
+    // Lit au plus tailleLot lignes complètes à partir du curseur, en s'arrêtant à la première non encore livrable
+    private Lot lireLot() throws IOException {
+        List<Notification> notifications = new ArrayList<>();
+        List<String> lignes = new ArrayList<>();
+        List<String> illisibles = new ArrayList<>();
+        long position = lireCurseur();
+        ByteArrayOutputStream ligne = new ByteArrayOutputStream();
+        long lecture = position;
+        // Échues ou, avec un regroupement, créées pendant la fenêtre ouverte par la première notification du lot
+        Duration fenetre = fenetreRegroupement;
+        LocalDateTime limite = LocalDateTime.now();
+        LocalDateTime prochaineEcheance = null;
+        while (notifications.size() < tailleLot && prochaineEcheance == null) {
+            tampon.clear();
+            int lus = journal.read(tampon, lecture);
+            if (lus <= 0) {
+                break;
+            }
+            tampon.flip();
+            while (tampon.hasRemaining() && notifications.size() < tailleLot && prochaineEcheance == null) {
+                byte octet = tampon.get();
+                lecture++;
+                if (octet != '\n') {
+                    ligne.write(octet);
+                    continue;
+                }
+                String contenu = ligne.toString(StandardCharsets.UTF_8);
+                ligne.reset();
+                Notification notification;
+                LocalDateTime echeance;
+                try {
+                    String[] champs = contenu.split("\t", -1);
+                    notification = decoder(champs);
+                    echeance = champs.length > 5 ? LocalDateTime.parse(champs[5]) : notification.horodatage();
+                } catch (RuntimeException e) {
+                    // Ligne illisible : mise à l'écart avec le lot, sans bloquer les notifications suivantes
+                    System.err.println("✗ Ligne illisible de l'outbox: " + e.getMessage());
+                    illisibles.add(contenu);
+                    position = lecture;
+                    continue;
+                }
+                if (echeance.isAfter(limite)) {
+                    // Les notifications sont livrées dans l'ordre du journal : le lot s'arrête avant celle-ci
+                    prochaineEcheance = echeance;
+                    break;
+                }
+                position = lecture;
+                lignes.add(contenu);
+                notifications.add(notification);
+                if (notifications.size() == 1 && echeance.plus(fenetre).isAfter(limite)) {
+                    limite = echeance.plus(fenetre);
+                }
+            }
+        }
+        // Une ligne incomplète (écriture en cours) est ignorée jusqu'au prochain passage
+        return new Lot(notifications, lignes, illisibles, position, prochaineEcheance);
+    }
+
+    // Un récapitulatif par destinataire, dans l'ordre de la première notification de chacun
+    private static List<Notification> regrouper(List<Notification> notifications) {
+        Map<Destinataire, List<Notification>> parDestinataire = new LinkedHashMap<>();
+        for (Notification notification : notifications) {
+            parDestinataire.computeIfAbsent(new Destinataire(notification.nom(), notification.email(),
+                    notification.prioritaire()), destinataire -> new ArrayList<>()).add(notification);
+        }
+        List<Notification> regroupees = new ArrayList<>(parDestinataire.size());
+        parDestinataire.forEach((destinataire, recues) -> regroupees.add(recues.size() == 1 ? recues.get(0)
+                : new Notification(destinataire.nom(), destinataire.email(),
+                        DispatcheurGroupe.resumer(recues.stream().map(Notification::message).toList()),
+                        destinataire.prioritaire(), recues.get(0).horodatage())));
+        return regroupees;
+    }
+
+    // Les lignes illisibles sont déplacées dans les échecs au moment où le curseur les dépasse
+    private void mettreALEcart(List<String> illisibles) throws IOException {
+        if (!illisibles.isEmpty()) {
+            System.err.println("✗ " + illisibles.size() + " ligne(s) illisible(s) déplacée(s) dans " + ECHECS);
+            Files.write(fichierEchecs, illisibles, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+    }
+
+    private long lireCurseur() {
+        synchronized (verrou) {
+            return curseur;
+        }
+    }
+
+    // Supprime une ligne incomplète en fin de journal, laissée par un arrêt brutal pendant une écriture
+    private static void tronquerLigneIncomplete(FileChannel journal) throws IOException {
+        ByteBuffer bloc = ByteBuffer.allocate(4096);
+        long fin = journal.size();
+        while (fin > 0) {
+            long debut = Math.max(0, fin - bloc.capacity());
+            bloc.clear().limit((int) (fin - debut));
+            while (bloc.hasRemaining()) {
+                if (journal.read(bloc, debut + bloc.position()) < 0) {
+                    break;
+                }
+            }
+            for (int i = bloc.position() - 1; i >= 0; i--) {
+                if (bloc.get(i) == '\n') {
+                    journal.truncate(debut + i + 1);
+                    return;
+                }
+            }
+            fin = debut;
+        }
+        journal.truncate(0);
+    }
+
+    private void avancerCurseur(long position) throws IOException {
+        enregistrerCurseur(position);
+        synchronized (verrou) {
+            curseur = position;
+            // Tout est livré : le journal est tronqué pour ne pas grossir indéfiniment, puis le curseur 0 est
+            // enregistré. Après un arrêt entre les deux étapes, le curseur enregistré dépasse la fin du journal
+            // vide et le constructeur le ramène à 0 : rien n'est relivré
+            if (curseur == journal.size()) {
+                journal.truncate(0);
+                if (synchroniserDisque) {
+                    journal.force(false);
+                }
+                curseur = 0;
+                enregistrerCurseur(0);
+            }
+            verrou.notifyAll();
+        }
+    }
+
+    private void enregistrerCurseur(long position) throws IOException {
+        Path temporaire = fichierCurseur.resolveSibling(CURSEUR + ".tmp");
+        Files.writeString(temporaire, Long.toString(position));
+        Files.move(temporaire, fichierCurseur, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void attendreNouvellesNotifications() throws IOException {
+        synchronized (verrou) {
+            if (actif && journal.size() == curseur) {
+                try {
+                    verrou.wait(500);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    actif = false;
+                }
+            }
+        }
+    }
+
+    private void attendre(Duration delai) {
+        synchronized (verrou) {
+            try {
+                if (actif) {
+                    verrou.wait(Math.max(1, delai.toMillis()));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                actif = false;
+            }
+        }
+    }
+
+    private Duration delaiAvantTentative(int tentative) {
+        long millis = delaiInitial.toMillis() << Math.min(tentative - 1, 20);
+        return millis > delaiMax.toMillis() ? delaiMax : Duration.ofMillis(millis);
+    }
+
+    // Format d'une ligne : horodatage, priorité, nom, email, message et échéance séparés par des tabulations
+    // (les lignes écrites sans échéance sont livrables immédiatement)
+    private static String encoder(Notification notification, LocalDateTime echeance) {
+        return notification.horodatage() + "\t" + notification.prioritaire() + "\t"
+                + echapper(notification.nom()) + "\t" + echapper(notification.email()) + "\t"
+                + echapper(notification.message()) + "\t" + echeance;
+    }
+
+    private static Notification decoder(String[] champs) {
+        return new Notification(desechapper(champs[2]), desechapper(champs[3]), desechapper(champs[4]),
+                Boolean.parseBoolean(champs[1]), LocalDateTime.parse(champs[0]));
+    }
+
+    // Une valeur absente est écrite "\0" pour la distinguer d'une chaîne vide
+    private static String echapper(String valeur) {
+        if (valeur == null) {
+            return "\\0";
+        }
+        return valeur.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n");
+    }
+
+    private static String desechapper(String valeur) {
+        if (valeur.equals("\\0")) {
+            return null;
+        }
+        StringBuilder resultat = new StringBuilder(valeur.length());
+        for (int i = 0; i < valeur.length(); i++) {
+            char c = valeur.charAt(i);
+            if (c == '\\' && i + 1 < valeur.length()) {
+                char suivant = valeur.charAt(++i);
+                resultat.append(suivant == 't' ? '\t' : suivant == 'n' ? '\n' : suivant);
+            } else {
+                resultat.append(c);
+            }
+        }
+        return resultat.toString();
+    }
+
+    private record Lot(List<Notification> notifications, List<String> lignes, List<String> illisibles, long fin,
+                       LocalDateTime prochaineEcheance) {
+    }
+
+    private record Destinataire(String nom, String email, boolean prioritaire) {
+    }
+}
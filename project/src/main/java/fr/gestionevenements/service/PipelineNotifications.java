@@ -0,0 +1,141 @@
+package fr.gestionevenements.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service de notification distribuant chaque notification à une série de transports.
+ * Chaque transport dispose de sa propre file bornée, de sa taille de lot et de son pool de workers :
+ * un transport lent ne ralentit ni les autres transports ni les appelants tant que sa file n'est pas pleine.
+ */
+public class PipelineNotifications implements NotificationService, AutoCloseable {
+    private final List<CanalTransport> canaux = new ArrayList<>();
+    private volatile boolean ferme;
+
+    //Ajoute un transport au pipeline avec sa file, sa taille de lot et son nombre de workers
+    public synchronized PipelineNotifications ajouterTransport(String nom, TransportNotification transport,
+                                                               int capaciteFile, int tailleLot, int nombreWorkers) {
+        if (capaciteFile <= 0 || tailleLot <= 0 || nombreWorkers <= 0) {
+            throw new IllegalArgumentException("La capacité, la taille de lot et le nombre de workers doivent être positifs");
+        }
+        canaux.add(new CanalTransport(nom, transport, capaciteFile, tailleLot, nombreWorkers));
+        return this;
+    }
+
+    @Override
+    public void envoyerNotification(String message) {
+        envoyerNotification(new Notification(null, null, message, false));
+    }
+
+    @Override
+    public void envoyerNotification(Notification notification) {
+        if (ferme) {
+            throw new IllegalStateException("Le pipeline de notifications est fermé");
+        }
+        for (CanalTransport canal : canaux) {
+            canal.deposer(notification);
+        }
+    }
+
+    //Statistiques de livraison par transport
+    public List<StatistiquesTransport> getStatistiques() {
+        List<StatistiquesTransport> statistiques = new ArrayList<>();
+        for (CanalTransport canal : canaux) {
+            statistiques.add(new StatistiquesTransport(canal.nom, canal.envoyees.get(), canal.echecs.get(),
+                    canal.lots.get(), canal.file.size()));
+        }
+        return statistiques;
+    }
+
+    //Livre les notifications en attente, arrête les workers et ferme les transports
+    @Override
+    public void close() {
+        ferme = true;
+        for (CanalTransport canal : canaux) {
+            canal.fermer();
+        }
+    }
+
+    public record StatistiquesTransport(String nom, long envoyees, long echecs, long lots, int enAttente) {
+    }
+
+    private static final class CanalTransport {
+        private final String nom;
+        private final TransportNotification transport;
+        private final BlockingQueue<Notification> file;
+        private final int tailleLot;
+        private final ExecutorService workers;
+        private final AtomicLong envoyees = new AtomicLong();
+        private final AtomicLong echecs = new AtomicLong();
+        private final AtomicLong lots = new AtomicLong();
+        private volatile boolean actif = true;
+
+        private CanalTransport(String nom, TransportNotification transport, int capaciteFile,
+                               int tailleLot, int nombreWorkers) {
+            this.nom = nom;
+            this.transport = transport;
+            this.file = new ArrayBlockingQueue<>(capaciteFile);
+            this.tailleLot = tailleLot;
+            this.workers = Executors.newFixedThreadPool(nombreWorkers,
+                    Thread.ofVirtual().name("transport-" + nom + "-", 0).factory());
+            for (int i = 0; i < nombreWorkers; i++) {
+                workers.execute(this::travailler);
+            }
+        }
+
+        // Contre-pression : l'appelant attend lorsque la file du transport est pleine
+        private void deposer(Notification notification) {
+            try {
+                file.put(notification);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                echecs.incrementAndGet();
+            }
+        }
+
+        private void travailler() {
+            List<Notification> lot = new ArrayList<>(tailleLot);
+            while (actif || !file.isEmpty()) {
+                try {
+                    Notification premiere = file.poll(100, TimeUnit.MILLISECONDS);
+                    if (premiere == null) {
+                        continue;
+                    }
+                    lot.add(premiere);
+                    file.drainTo(lot, tailleLot - 1);
+                    transport.transmettre(lot);
+                    envoyees.addAndGet(lot.size());
+                    lots.incrementAndGet();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (IOException | RuntimeException e) {
+                    echecs.addAndGet(lot.size());
+                    System.err.println("✗ Erreur du transport " + nom + ": " + e.getMessage());
+                } finally {
+                    lot.clear();
+                }
+            }
+        }
+
+        private void fermer() {
+            actif = false;
+            workers.shutdown();
+            try {
+                workers.awaitTermination(1, TimeUnit.MINUTES);
+                transport.close();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                System.err.println("✗ Erreur lors de la fermeture du transport " + nom + ": " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package fr.gestionevenements.service;
+
+import fr.gestionevenements.modele.ParticipantObserver;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Planificateur dédié à l'envoi différé des notifications.
+ * Les délais sont gérés par un unique thread de planification (aucun thread n'est bloqué pendant l'attente),
+ * puis chaque livraison s'exécute sur un thread virtuel. Un sémaphore limite le nombre de livraisons
+ * simultanées ; le pool commun ForkJoin n'est jamais utilisé.
+ */
+public class PlanificateurNotifications implements AutoCloseable {
+    private final ScheduledExecutorService planification;
+    private final ExecutorService livraison;
+    private final Semaphore livraisonsSimultanees;
+    private final Duration delai;
+
+    public PlanificateurNotifications(Duration delai, int limiteConcurrence) {
+        if (limiteConcurrence <= 0) {
+            throw new IllegalArgumentException("La limite de concurrence doit être positive");
+        }
+        this.delai = delai;
+        this.livraisonsSimultanees = new Semaphore(limiteConcurrence);
+        this.planification = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("planificateur-notifications").daemon().factory());
+        this.livraison = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    //Délai appliqué à chaque notification envoyée
+    public Duration getDelai() {
+        return delai;
+    }
+
+    //Planifie la notification d'un observateur après le délai configuré
+    public CompletableFuture<Void> envoyer(ParticipantObserver destinataire, String message) {
+        return planifier(() -> destinataire.mettreAJour(message), delai);
+    }
+
+    //Planifie une livraison après le délai donné ; le futur est complété une fois la livraison terminée
+    public CompletableFuture<Void> planifier(Runnable tache, Duration delaiLivraison) {
+        CompletableFuture<Void> resultat = new CompletableFuture<>();
+        try {
+            planification.schedule(() -> livraison.execute(() -> livrer(tache, resultat)),
+                    delaiLivraison.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Planificateur arrêté (remplacé) : le futur échoue au lieu de lever l'exception chez l'appelant
+            resultat.completeExceptionally(e);
+        }
+        return resultat;
+    }
+
+    private void livrer(Runnable tache, CompletableFuture<Void> resultat) {
+        try {
+            livraisonsSimultanees.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            resultat.completeExceptionally(e);
+            return;
+        }
+        try {
+            tache.run();
+            resultat.complete(null);
+        } catch (RuntimeException e) {
+            resultat.completeExceptionally(e);
+        } finally {
+            livraisonsSimultanees.release();
+        }
+    }
+
+    @Override
+    public void close() {
+        planification.shutdown();
+        try {
+            // Les livraisons déjà planifiées sont transmises avant l'arrêt de l'exécuteur de livraison
+            planification.awaitTermination(1, TimeUnit.MINUTES);
+            livraison.shutdown();
+            livraison.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
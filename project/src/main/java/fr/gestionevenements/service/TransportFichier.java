@@ -0,0 +1,38 @@
+package fr.gestionevenements.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+//Transport ajoutant chaque notification sur une ligne à la fin d'un fichier journal.
+public class TransportFichier implements TransportNotification {
+    private final BufferedWriter writer;
+
+    public TransportFichier(Path fichier) throws IOException {
+        Path repertoire = fichier.toAbsolutePath().getParent();
+        if (repertoire != null) {
+            Files.createDirectories(repertoire);
+        }
+        this.writer = Files.newBufferedWriter(fichier, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    @Override
+    public synchronized void transmettre(List<Notification> lot) throws IOException {
+        for (Notification notification : lot) {
+            writer.write(notification.horodatage() + " " + notification.formater().replace('\n', ' '));
+            writer.newLine();
+        }
+        // Une seule écriture disque par lot
+        writer.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+}
@@ -0,0 +1,22 @@
+package fr.gestionevenements.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+//Transport conservant les notifications en mémoire (tests, mesures, affichage dans l'interface).
+public class TransportMemoire implements TransportNotification {
+    private final List<Notification> notifications = new ArrayList<>();
+
+    @Override
+    public synchronized void transmettre(List<Notification> lot) {
+        notifications.addAll(lot);
+    }
+
+    public synchronized List<Notification> getNotifications() {
+        return new ArrayList<>(notifications);
+    }
+
+    public synchronized void vider() {
+        notifications.clear();
+    }
+}
@@ -0,0 +1,15 @@
+package fr.gestionevenements.service;
+
+import java.io.IOException;
+import java.util.List;
+
+//Moyen de transport des notifications (mémoire, fichier, SMTP...), alimenté par lots.
+public interface TransportNotification extends AutoCloseable {
+
+    //Transmet un lot de notifications ; une exception signale l'échec de tout le lot
+    void transmettre(List<Notification> lot) throws IOException;
+
+    @Override
+    default void close() throws IOException {
+    }
+}
@@ -0,0 +1,58 @@
+package fr.gestionevenements.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Substitut local d'un serveur SMTP : chaque notification est mise en forme comme un email
+ * (en-têtes From/To/Subject/Date) et déposée dans une boîte au format mbox, sans accès réseau.
+ * Permet de mesurer le coût de mise en forme des emails indépendamment d'un vrai serveur.
+ */
+public class TransportSmtpLocal implements TransportNotification {
+    private static final DateTimeFormatter FORMAT_DATE = DateTimeFormatter.RFC_1123_DATE_TIME;
+
+    private final String expediteur;
+    private final BufferedWriter boite;
+
+    public TransportSmtpLocal(Path fichierMbox, String expediteur) throws IOException {
+        Path repertoire = fichierMbox.toAbsolutePath().getParent();
+        if (repertoire != null) {
+            Files.createDirectories(repertoire);
+        }
+        this.expediteur = expediteur;
+        this.boite = Files.newBufferedWriter(fichierMbox, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    @Override
+    public synchronized void transmettre(List<Notification> lot) throws IOException {
+        for (Notification notification : lot) {
+            String date = notification.horodatage().atZone(ZoneId.systemDefault()).format(FORMAT_DATE);
+            boite.write("From " + expediteur + " " + date + "\n");
+            boite.write("From: " + expediteur + "\n");
+            boite.write("To: " + notification.nom() + " <" + notification.email() + ">\n");
+            boite.write("Subject: " + (notification.prioritaire() ? "[PRIORITAIRE] " : "")
+                    + "Notification d'événement\n");
+            boite.write("Date: " + date + "\n\n");
+            // Échappement mbox des lignes commençant par "From "
+            for (String ligne : notification.message().split("\n", -1)) {
+                boite.write(ligne.startsWith("From ") ? ">" + ligne : ligne);
+                boite.write("\n");
+            }
+            boite.write("\n");
+        }
+        boite.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        boite.close();
+    }
+}
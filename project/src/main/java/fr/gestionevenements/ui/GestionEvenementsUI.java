@@ -2,7 +2,8 @@ package fr.gestionevenements.ui;
 
 import fr.gestionevenements.gestionnaire.GestionEvenements;
 import fr.gestionevenements.modele.*;
-import fr.gestionevenements.serialisation.JSONSerializationStrategy;
+import fr.gestionevenements.serialisation.Compression;
+import fr.gestionevenements.serialisation.RegistreStrategies;
 import fr.gestionevenements.serialisation.SerializationStrategy;
 import fr.gestionevenements.service.NotificationService;
 import javafx.application.Application;
@@ -47,9 +48,11 @@ public class GestionEvenementsUI extends Application {
     //Méthode principale de démarrage de l'interface JavaFX.
     @Override
     public void start(Stage primaryStage) {
-        // Initialiser le gestionnaire avec la stratégie de sérialisation JSON
-        gestionEvenements.setSerializationStrategy(new JSONSerializationStrategy());
-        gestionEvenements.chargerEvenements("evenements.json");
+        // Initialiser le gestionnaire avec la stratégie de sérialisation JSON partagée,
+        // et construire en arrière-plan les sérialiseurs des autres formats
+        gestionEvenements.setSerializationStrategy(
+                RegistreStrategies.obtenir(RegistreStrategies.Format.JSON, Compression.AUCUNE));
+        Thread.ofVirtual().name("prechauffage-serialisation").start(RegistreStrategies::prechauffer);
         initComponents();
 
         // Création de la scène principale
@@ -73,14 +76,25 @@ public class GestionEvenementsUI extends Application {
         primaryStage.setScene(scene);
         primaryStage.show();
 
-        // Charger les données existantes
-        try {
-            gestionEvenements.chargerEvenements("evenements.json");
-            actualiserTableEvenements();
-            afficherNotification("Données chargées avec succès.");
-        } catch (Exception e) {
-            afficherNotification("Aucune donnée précédente trouvée ou erreur de chargement.");
-        }
+        // Charger les données existantes en arrière-plan, la fenêtre reste utilisable pendant le chargement
+        chargerDonnees("evenements.json", "Données chargées avec succès.",
+                "Aucune donnée précédente trouvée ou erreur de chargement.");
+    }
+
+    //Charge les événements en flux : chaque lot lu est affiché sans attendre la fin du chargement.
+    private void chargerDonnees(String fichier, String messageSucces, String messageErreur) {
+        listeEvenements.clear();
+        gestionEvenements.chargerEvenementsAsync(fichier,
+                        (lot, octetsLus, octetsTotal) -> Platform.runLater(() -> listeEvenements.addAll(lot)))
+                .whenComplete((nombre, erreur) -> Platform.runLater(() -> {
+                    if (erreur != null) {
+                        // Le catalogue n'a pas été remplacé : la liste reprend son contenu
+                        listeEvenements.setAll(gestionEvenements.getEvenements().values());
+                        afficherNotification(messageErreur);
+                    } else {
+                        afficherNotification(messageSucces + " (" + nombre + " événements)");
+                    }
+                }));
     }
 
     //Initialise les composants principaux de l'interface.
@@ -249,9 +263,21 @@ public class GestionEvenementsUI extends Application {
         RadioButton rbJSON = new RadioButton("JSON");
         rbJSON.setToggleGroup(groupFormat);
         rbJSON.setSelected(true);
+        RadioButton rbBinaire = new RadioButton("Binaire");
+        rbBinaire.setToggleGroup(groupFormat);
+
+        formatBox.getChildren().addAll(lblFormat, rbJSON, rbBinaire);
 
+        // Compression du fichier : GZIP réduit le plus la taille, les blocs compressent plus vite
+        HBox compressionBox = new HBox(20);
+        compressionBox.setAlignment(Pos.CENTER);
 
-        formatBox.getChildren().addAll(lblFormat, rbJSON);
+        Label lblCompression = new Label("Compression :");
+        ComboBox<Compression> cbCompression = new ComboBox<>();
+        cbCompression.getItems().addAll(Compression.values());
+        cbCompression.setValue(Compression.AUCUNE);
+
+        compressionBox.getChildren().addAll(lblCompression, cbCompression);
 
         HBox boutonsBox = new HBox(20);
         boutonsBox.setAlignment(Pos.CENTER);
@@ -259,43 +285,47 @@ public class GestionEvenementsUI extends Application {
         Button btnSauvegarder = new Button("Sauvegarder les données");
         appliquerStyleBoutonPrimaire(btnSauvegarder);
         btnSauvegarder.setOnAction(e -> {
-            SerializationStrategy strategy = null;
-            String extension = "";
-
-            if (rbJSON.isSelected()) {
-                strategy = new JSONSerializationStrategy();
-                extension = ".json";
-            }
+            // Stratégies partagées : les caches de sérialisation restent chauds d'une sauvegarde à l'autre
+            RegistreStrategies.Format formatChoisi = rbBinaire.isSelected()
+                    ? RegistreStrategies.Format.BINAIRE : RegistreStrategies.Format.JSON;
+            Compression compression = cbCompression.getValue();
+            SerializationStrategy strategy = RegistreStrategies.obtenir(formatChoisi, compression);
+            String extension = formatChoisi.getExtension() + compression.getExtension();
             gestionEvenements.setSerializationStrategy(strategy);
-            gestionEvenements.sauvegarderEvenements("evenements" + extension);
-            afficherNotification("Données sauvegardées avec succès au format " + extension.toUpperCase() + ".");
+            // L'écriture se fait en arrière-plan : l'interface reste réactive pendant les grosses sauvegardes
+            String format = extension.toUpperCase();
+            btnSauvegarder.setDisable(true);
+            gestionEvenements.sauvegarderEvenementsAsync("evenements" + extension)
+                    .whenComplete((nombre, erreur) -> Platform.runLater(() -> {
+                        btnSauvegarder.setDisable(false);
+                        if (erreur != null) {
+                            Throwable cause = erreur.getCause() != null ? erreur.getCause() : erreur;
+                            afficherNotification("Erreur lors de la sauvegarde : " + cause.getMessage());
+                        } else {
+                            afficherNotification("Données sauvegardées avec succès au format " + format
+                                    + " (" + nombre + " événements).");
+                        }
+                    }));
         });
 
         Button btnCharger = new Button("Charger les données");
         appliquerStyleBoutonAlerte(btnCharger );
         btnCharger.setOnAction(e -> {
-            SerializationStrategy strategy = null;
-            String extension = null;
-
-            if (rbJSON.isSelected()) {
-                strategy = new JSONSerializationStrategy();
-                extension = "json";
-            }
-
+            RegistreStrategies.Format formatChoisi = rbBinaire.isSelected()
+                    ? RegistreStrategies.Format.BINAIRE : RegistreStrategies.Format.JSON;
+            Compression compression = cbCompression.getValue();
+            SerializationStrategy strategy = RegistreStrategies.obtenir(formatChoisi, compression);
+            String extension = formatChoisi.getExtension().substring(1) + compression.getExtension();
             gestionEvenements.setSerializationStrategy(strategy);
 
-            try {
-                gestionEvenements.chargerEvenements("evenements." + extension);
-                actualiserTableEvenements();
-                afficherNotification("Données chargées avec succès depuis le format " + extension.toUpperCase() + ".");
-            } catch (Exception ex) {
-                afficherNotification("Erreur lors du chargement des données : " + ex.getMessage());
-            }
+            chargerDonnees("evenements." + extension,
+                    "Données chargées avec succès depuis le format " + extension.toUpperCase() + ".",
+                    "Erreur lors du chargement des données.");
         });
 
         boutonsBox.getChildren().addAll(btnSauvegarder, btnCharger);
 
-        vbox.getChildren().addAll(titre, formatBox, boutonsBox);
+        vbox.getChildren().addAll(titre, formatBox, compressionBox, boutonsBox);
         return vbox;
     }
 
@@ -660,6 +690,8 @@ public class GestionEvenementsUI extends Application {
 
         if (result.isPresent() && result.get() == ButtonType.OK) {
             listeParticipants.remove(participant);
+            // Le participant supprimé ne doit plus être notifié par les événements
+            gestionEvenements.desabonnerObservateur(participant);
             afficherNotification("Participant supprimé : " + participant.getNom());
         }
     }
@@ -710,9 +742,9 @@ public class GestionEvenementsUI extends Application {
     }
 
     private void actualiserTableEvenements() {
-        listeEvenements.clear();
+        // Vue partagée fournie par le gestionnaire : aucune copie intermédiaire du catalogue
         Map<String, Evenement> evenements = gestionEvenements.getEvenements();
-        listeEvenements.addAll(evenements.values());
+        listeEvenements.setAll(evenements.values());
     }
 
     //Affiche une notification dans la zone de notifications.
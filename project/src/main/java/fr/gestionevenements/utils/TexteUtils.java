@@ -0,0 +1,24 @@
+package fr.gestionevenements.utils;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+public class TexteUtils {
+
+    // Marques diacritiques isolées par la décomposition NFD (accents, cédilles...)
+    private static final Pattern DIACRITIQUES = Pattern.compile("\\p{M}+");
+
+    //Normalise un texte pour la recherche : sans accents, sans ligatures et en minuscules.
+    public static String normaliserPourRecherche(String texte) {
+        if (texte == null || texte.isEmpty()) {
+            return "";
+        }
+        String decompose = Normalizer.normalize(texte, Normalizer.Form.NFD);
+        String sansAccents = DIACRITIQUES.matcher(decompose).replaceAll("");
+        // Les ligatures françaises ne sont pas décomposées par NFD
+        return sansAccents.toLowerCase(Locale.ROOT)
+                .replace("œ", "oe")
+                .replace("æ", "ae");
+    }
+}
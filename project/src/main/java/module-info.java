@@ -20,6 +20,7 @@ module systeme.gestion.evenements {
 	exports fr.gestionevenements.gestionnaire;
 	exports fr.gestionevenements.modele;
 	exports fr.gestionevenements.serialisation;
+	exports fr.gestionevenements.service;
 
 	// OPENS - Packages ouverts pour la réflexion (nécessaire pour Jackson et JavaFX)
 	opens fr.gestionevenements.ui to
@@ -0,0 +1,102 @@
+package fr.gestionevenements.tests;
+
+import fr.gestionevenements.modele.Concert;
+import fr.gestionevenements.modele.Conference;
+import fr.gestionevenements.modele.Evenement;
+import fr.gestionevenements.modele.Participant;
+import fr.gestionevenements.serialisation.BinarySerializationStrategy;
+import fr.gestionevenements.serialisation.CompressedSerializationStrategy;
+import fr.gestionevenements.serialisation.Compression;
+import fr.gestionevenements.serialisation.JSONSerializationStrategy;
+import fr.gestionevenements.serialisation.SerializationStrategy;
+import fr.gestionevenements.service.NotificationService;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+//Compare la taille produite et les temps d'écriture/lecture des stratégies JSON et binaire,
+//non compressées puis compressées (GZIP, blocs) : octets écrits sur disque économisés contre temps CPU ajouté.
+//Usage : BenchmarkSerialisation [nombreEvenements] [participantsParEvenement]
+
+public class BenchmarkSerialisation {
+    private static final int ITERATIONS = 10;
+
+    public static void main(String[] args) throws IOException {
+        int nombreEvenements = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int participantsParEvenement = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        Participant.setServiceNotification((NotificationService) message -> { });
+
+        Map<String, Evenement> evenements = genererEvenements(nombreEvenements, participantsParEvenement);
+        System.out.println(nombreEvenements + " événements, " + participantsParEvenement + " participants chacun");
+        for (SerializationStrategy format : List.of(new JSONSerializationStrategy(), new BinarySerializationStrategy())) {
+            String nom = format instanceof JSONSerializationStrategy ? "JSON" : "Binaire";
+            Mesure reference = mesurer(nom, format, evenements, null);
+            for (Compression compression : List.of(Compression.GZIP, Compression.BLOCS)) {
+                mesurer(nom + "+" + compression.name(), new CompressedSerializationStrategy(format, compression),
+                        evenements, reference);
+            }
+        }
+    }
+
+    private static Map<String, Evenement> genererEvenements(int nombre, int participantsParEvenement) {
+        String[] lieux = {"Paris", "Lyon", "Marseille", "Lille", "Nantes"};
+        String[] genres = {"Rock", "Jazz", "Classique", "Électro"};
+        Map<String, Evenement> evenements = new HashMap<>();
+        for (int i = 0; i < nombre; i++) {
+            Evenement evenement = i % 2 == 0
+                    ? new Concert("Concert " + i, LocalDateTime.now().plusDays(i % 365), lieux[i % lieux.length],
+                            participantsParEvenement, "Artiste " + (i % 100), genres[i % genres.length])
+                    : new Conference("Conférence " + i, LocalDateTime.now().plusDays(i % 365), lieux[i % lieux.length],
+                            participantsParEvenement, "Thème " + (i % 50));
+            for (int p = 0; p < participantsParEvenement; p++) {
+                int numero = (i * 7 + p) % 1000;
+                evenement.ajouterParticipant(new Participant("Participant " + numero, "p" + numero + "@test.com"));
+            }
+            evenements.put(evenement.getId(), evenement);
+        }
+        return evenements;
+    }
+
+    private static Mesure mesurer(String nom, SerializationStrategy strategie, Map<String, Evenement> evenements,
+                                  Mesure reference) throws IOException {
+        byte[] contenu = null;
+        long ecriture = Long.MAX_VALUE;
+        long lecture = Long.MAX_VALUE;
+        for (int i = 0; i < ITERATIONS; i++) {
+            long debut = System.nanoTime();
+            ByteArrayOutputStream sortie = new ByteArrayOutputStream();
+            strategie.ecrire(evenements, sortie);
+            ecriture = Math.min(ecriture, System.nanoTime() - debut);
+            contenu = sortie.toByteArray();
+
+            int[] lus = {0};
+            debut = System.nanoTime();
+            strategie.lire(new ByteArrayInputStream(contenu), evenement -> lus[0]++);
+            lecture = Math.min(lecture, System.nanoTime() - debut);
+            if (lus[0] != evenements.size()) {
+                throw new IllegalStateException(nom + " : " + lus[0] + " événements relus sur " + evenements.size());
+            }
+        }
+        Mesure mesure = new Mesure(contenu.length, ecriture, lecture);
+        System.out.printf("%-16s taille: %,12d octets   écriture: %,8d ms   lecture: %,8d ms",
+                nom, mesure.taille(), ecriture / 1_000_000, lecture / 1_000_000);
+        if (reference != null) {
+            // Octets épargnés au disque pour chaque milliseconde de CPU ajoutée (écriture + lecture)
+            long economise = reference.taille() - mesure.taille();
+            long surcout = Math.max(1, (mesure.ecriture() + mesure.lecture()
+                    - reference.ecriture() - reference.lecture()) / 1_000_000);
+            System.out.printf("   ratio: %4.1f%%   %,d Ko épargnés par ms CPU",
+                    100.0 * mesure.taille() / reference.taille(), economise / 1024 / surcout);
+        }
+        System.out.println();
+        return mesure;
+    }
+
+    private record Mesure(long taille, long ecriture, long lecture) {
+    }
+}
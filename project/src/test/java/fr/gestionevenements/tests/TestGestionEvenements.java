@@ -1,15 +1,36 @@
 package fr.gestionevenements.tests;
 
 import fr.gestionevenements.gestionnaire.GestionEvenements;
+import fr.gestionevenements.gestionnaire.MappedEvenementStore;
+import fr.gestionevenements.gestionnaire.PartitionnementSegments;
+import fr.gestionevenements.gestionnaire.StripedEvenementStore;
 import fr.gestionevenements.modele.*;
+import fr.gestionevenements.serialisation.BinarySerializationStrategy;
 import fr.gestionevenements.serialisation.JSONSerializationStrategy;
+import fr.gestionevenements.service.PlanificateurNotifications;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -89,6 +110,90 @@ public class TestGestionEvenements {
         assertFalse(resultats.containsKey(evenement2.getId()));
     }
 
+    @Test
+    public void testRechercherEvenementParNomApresRenommage() {
+        gestionEvenements.ajouterEvenement(evenement1);
+        gestionEvenements.ajouterEvenement(evenement2);
+
+        // Sous-chaîne au milieu du nom, insensible à la casse
+        assertEquals(2, gestionEvenements.rechercherEvenementParNom("DE TEST").size());
+        // Requête courte : résolue sans l'index de trigrammes
+        assertTrue(gestionEvenements.rechercherEvenementParNom("co").containsKey(evenement2.getId()));
+
+        // Le renommage met l'index à jour
+        evenement1.setNom("Festival d'été");
+        assertFalse(gestionEvenements.rechercherEvenementParNom("Concert").containsKey(evenement1.getId()));
+        assertTrue(gestionEvenements.rechercherEvenementParNom("festival").containsKey(evenement1.getId()));
+
+        // Un événement supprimé n'est plus trouvé
+        gestionEvenements.supprimerEvenement(evenement1.getId());
+        assertTrue(gestionEvenements.rechercherEvenementParNom("festival").isEmpty());
+    }
+
+    @Test
+    public void testRechercherEvenementParNomSansAccents() {
+        gestionEvenements.ajouterEvenement(evenement2);
+        evenement1.setNom("Fête de la Musique");
+        gestionEvenements.ajouterEvenement(evenement1);
+
+        assertTrue(gestionEvenements.rechercherEvenementParNom("conference").containsKey(evenement2.getId()));
+        assertTrue(gestionEvenements.rechercherEvenementParNom("CONFÉRENCE").containsKey(evenement2.getId()));
+        assertTrue(gestionEvenements.rechercherEvenementParNom("fete de").containsKey(evenement1.getId()));
+        assertEquals("fete de la musique", evenement1.getCleRecherche());
+    }
+
+    @Test
+    public void testRechercherEvenementsParDate() {
+        LocalDateTime maintenant = LocalDateTime.now();
+        gestionEvenements.ajouterEvenement(evenement1);   // J+10
+        gestionEvenements.ajouterEvenement(evenement2);   // J+20
+
+        List<Evenement> entre = gestionEvenements.rechercherEvenementsEntre(maintenant, maintenant.plusDays(15));
+        assertEquals(List.of(evenement1), entre);
+        assertEquals(List.of(evenement1), gestionEvenements.rechercherEvenementsAvant(maintenant.plusDays(15)));
+        assertEquals(List.of(evenement2), gestionEvenements.rechercherEvenementsApres(maintenant.plusDays(15)));
+        assertEquals(List.of(evenement1, evenement2), gestionEvenements.prochainsEvenements(5));
+        assertEquals(List.of(evenement1), gestionEvenements.prochainsEvenements(1));
+
+        // Le changement de date réordonne l'index
+        evenement2.setDate(maintenant.plusDays(5));
+        assertEquals(List.of(evenement2, evenement1), gestionEvenements.prochainsEvenements(5));
+
+        gestionEvenements.supprimerEvenement(evenement2.getId());
+        assertEquals(List.of(evenement1), gestionEvenements.prochainsEvenements(5));
+    }
+
+    @Test
+    public void testRechercherEvenementsParAttributs() {
+        Concert concert2 = new Concert("Autre concert", LocalDateTime.now().plusDays(3),
+                "Salle de Test", 30, "Autre artiste", "Jazz");
+        gestionEvenements.ajouterEvenement(evenement1);
+        gestionEvenements.ajouterEvenement(evenement2);
+        gestionEvenements.ajouterEvenement(concert2);
+
+        assertEquals(2, gestionEvenements.rechercherEvenementsParLieu("salle de test").size());
+        assertEquals(2, gestionEvenements.rechercherEvenementsParType(Concert.class).size());
+        assertTrue(gestionEvenements.rechercherEvenementsParType(Conference.class).containsKey(evenement2.getId()));
+
+        // Intersection de plusieurs index
+        Map<String, Evenement> rock = gestionEvenements.rechercherEvenementsParAttributs(Map.of(
+                Evenement.ATTRIBUT_LIEU, "Salle de Test",
+                Concert.ATTRIBUT_GENRE_MUSICAL, "rock"));
+        assertEquals(1, rock.size());
+        assertTrue(rock.containsKey(evenement1.getId()));
+
+        // Les setters maintiennent les index
+        ((Concert) evenement1).setGenreMusical("Jazz");
+        ((Conference) evenement2).setTheme("Écologie");
+        evenement2.setLieu("Salle de Test");
+        assertEquals(2, gestionEvenements.rechercherEvenementsParAttributs(
+                Map.of(Concert.ATTRIBUT_GENRE_MUSICAL, "jazz")).size());
+        assertTrue(gestionEvenements.rechercherEvenementsParAttributs(
+                Map.of(Conference.ATTRIBUT_THEME, "ecologie")).containsKey(evenement2.getId()));
+        assertEquals(3, gestionEvenements.rechercherEvenementsParLieu("Salle de Test").size());
+        assertTrue(gestionEvenements.rechercherEvenementsParLieu("Centre de conférences").isEmpty());
+    }
+
     @Test
     public void testAjouterEvenementDejaExistant() {
         // Ajouter un événement
@@ -128,6 +233,200 @@ public class TestGestionEvenements {
         });
     }
 
+    @Test
+    public void testParticipantsOrdreInscriptionConserve() {
+        Evenement grandConcert = new Concert("Grand concert", LocalDateTime.now().plusDays(30),
+                "Stade", 20000, "Artiste Test", "Pop");
+        for (int i = 0; i < 20000; i++) {
+            grandConcert.ajouterParticipant(new Participant("Participant " + i, "p" + i + "@test.com"));
+        }
+
+        List<Participant> participants = grandConcert.getParticipants();
+        assertEquals(20000, participants.size());
+        assertEquals("Participant 0", participants.get(0).getNom());
+        assertEquals("Participant 19999", participants.get(19999).getNom());
+        assertThrows(CapaciteMaxAtteinteException.class, () -> grandConcert.ajouterParticipant(participant1));
+    }
+
+    @Test
+    public void testInscriptionsConcurrentesSansSurreservation() throws InterruptedException {
+        int capacite = 100;
+        Evenement concertComplet = new Concert("Concert complet", LocalDateTime.now().plusDays(30),
+                "Salle", capacite, "Artiste Test", "Rock");
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch depart = new CountDownLatch(1);
+        AtomicInteger inscrits = new AtomicInteger();
+        AtomicInteger refuses = new AtomicInteger();
+
+        for (int i = 0; i < 1000; i++) {
+            // Un participant sur deux tente de s'inscrire deux fois
+            Participant participant = new Participant("Participant " + i, "p" + i + "@test.com");
+            int tentatives = i % 2 == 0 ? 2 : 1;
+            for (int t = 0; t < tentatives; t++) {
+                executor.submit(() -> {
+                    depart.await();
+                    try {
+                        concertComplet.ajouterParticipant(participant);
+                        inscrits.incrementAndGet();
+                    } catch (CapaciteMaxAtteinteException | ParticipantDejaInscritException e) {
+                        refuses.incrementAndGet();
+                    }
+                    return null;
+                });
+            }
+        }
+        depart.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        List<Participant> participants = concertComplet.getParticipants();
+        assertEquals(capacite, inscrits.get());
+        assertEquals(capacite, participants.size());
+        assertEquals(capacite, participants.stream().map(Participant::getId).distinct().count());
+        assertEquals(1500 - capacite, refuses.get());
+    }
+
+    @Test
+    public void testDoublonConcurrentEvenementComplet() throws InterruptedException {
+        Evenement complet = new Concert("Concert complet", LocalDateTime.now().plusDays(30),
+                "Salle", 1, "Artiste Test", "Rock");
+        complet.ajouterParticipant(participant1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch depart = new CountDownLatch(1);
+        AtomicInteger dejaInscrits = new AtomicInteger();
+
+        // Le même participant tente de s'inscrire à un événement complet depuis plusieurs threads
+        for (int i = 0; i < 2000; i++) {
+            executor.submit(() -> {
+                depart.await();
+                try {
+                    complet.ajouterParticipant(participant2);
+                } catch (CapaciteMaxAtteinteException e) {
+                    // Refus attendu
+                } catch (ParticipantDejaInscritException e) {
+                    dejaInscrits.incrementAndGet();
+                }
+                return null;
+            });
+        }
+        depart.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        // Aucune tentative n'a été refusée pour une inscription qui n'a jamais abouti
+        assertEquals(0, dejaInscrits.get());
+        assertEquals(List.of(participant1), complet.getParticipants());
+    }
+
+    @Test
+    public void testDoublonsNeBloquentPasDernierePlace() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (int essai = 0; essai < 200; essai++) {
+                Evenement concert = new Concert("Concert " + essai, LocalDateTime.now().plusDays(30),
+                        "Salle", 2, "Artiste Test", "Rock");
+                concert.ajouterParticipant(participant1);
+                CountDownLatch depart = new CountDownLatch(1);
+                List<Future<?>> tentatives = new ArrayList<>();
+                // Des doublons de participant1 concourent avec l'inscription légitime de la dernière place
+                for (int i = 0; i < 3; i++) {
+                    tentatives.add(executor.submit(() -> {
+                        depart.await();
+                        try {
+                            concert.ajouterParticipant(participant1);
+                            fail("Un doublon a été inscrit");
+                        } catch (ParticipantDejaInscritException | CapaciteMaxAtteinteException e) {
+                            // Refus attendu (complet une fois la dernière place prise)
+                        }
+                        return null;
+                    }));
+                }
+                tentatives.add(executor.submit(() -> {
+                    depart.await();
+                    concert.ajouterParticipant(participant2);
+                    return null;
+                }));
+                depart.countDown();
+                for (Future<?> tentative : tentatives) {
+                    tentative.get(10, TimeUnit.SECONDS);
+                }
+                assertEquals(List.of(participant1, participant2), concert.getParticipants());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testInscriptionGroupeeToutOuRien() {
+        Evenement petitConcert = new Concert("Petit concert", LocalDateTime.now().plusDays(5),
+                "Petite Salle", 3, "Artiste Test", "Pop");
+        petitConcert.ajouterParticipant(participant1);
+        Participant paul = new Participant("Paul Test", "paul@test.com");
+
+        // Capacité insuffisante : aucun participant n'est inscrit
+        assertThrows(CapaciteMaxAtteinteException.class, () -> petitConcert.ajouterParticipants(
+                List.of(participant2, paul, new Participant("Léa Test", "lea@test.com"))));
+        assertEquals(1, petitConcert.getParticipants().size());
+
+        // Participant déjà inscrit dans le lot : aucun participant n'est inscrit
+        assertThrows(ParticipantDejaInscritException.class, () -> petitConcert.ajouterParticipants(
+                List.of(participant2, participant1)));
+        assertThrows(ParticipantDejaInscritException.class, () -> petitConcert.ajouterParticipants(
+                List.of(participant2, participant2)));
+        assertEquals(1, petitConcert.getParticipants().size());
+
+        // Doublon et capacité insuffisante : la capacité est signalée en premier, comme pour une inscription seule
+        assertThrows(CapaciteMaxAtteinteException.class, () -> petitConcert.ajouterParticipants(
+                List.of(participant1, participant2, paul)));
+        assertEquals(1, petitConcert.getParticipants().size());
+
+        petitConcert.ajouterParticipants(List.of(participant2));
+        assertEquals(List.of(participant1, participant2), petitConcert.getParticipants());
+    }
+
+    @Test
+    public void testRafaleNotificationsAsynchrones() throws Exception {
+        AtomicInteger recues = new AtomicInteger();
+        Participant destinataire = new Participant("Destinataire", "dest@test.com") {
+            @Override
+            public void mettreAJour(String message) {
+                recues.incrementAndGet();
+            }
+        };
+        PlanificateurNotifications planificateur = new PlanificateurNotifications(Duration.ofMillis(200), 16);
+        gestionEvenements.setPlanificateurNotifications(planificateur);
+        try {
+            CompletableFuture<?>[] envois = new CompletableFuture<?>[500];
+            for (int i = 0; i < envois.length; i++) {
+                envois[i] = gestionEvenements.envoyerNotificationAsync(destinataire, "Message " + i);
+            }
+            // Les délais ne bloquent aucun thread : la rafale est livrée bien avant 500 x 200 ms
+            CompletableFuture.allOf(envois).get(10, TimeUnit.SECONDS);
+            assertEquals(500, recues.get());
+        } finally {
+            gestionEvenements.setPlanificateurNotifications(new PlanificateurNotifications(Duration.ofSeconds(1), 64));
+        }
+    }
+
+    @Test
+    public void testRemplacementPlanificateurLivreNotificationsEnAttente() throws Exception {
+        AtomicInteger recues = new AtomicInteger();
+        Participant destinataire = new Participant("Destinataire", "dest@test.com") {
+            @Override
+            public void mettreAJour(String message) {
+                recues.incrementAndGet();
+            }
+        };
+        gestionEvenements.setPlanificateurNotifications(new PlanificateurNotifications(Duration.ofMillis(200), 4));
+        CompletableFuture<Void> envoi = gestionEvenements.envoyerNotificationAsync(destinataire, "En attente");
+
+        // Le planificateur remplacé est arrêté seulement après avoir livré ce qu'il avait planifié
+        gestionEvenements.setPlanificateurNotifications(new PlanificateurNotifications(Duration.ofSeconds(1), 64));
+        envoi.get(5, TimeUnit.SECONDS);
+        assertEquals(1, recues.get());
+    }
+
     @Test
     public void testSerialisationDeserialisation() {
         // Ajouter des événements
@@ -157,6 +456,295 @@ public class TestGestionEvenements {
         assertNotNull(gestionEvenements.rechercherEvenement(evenement2.getId()));
     }
 
+    @Test
+    public void testChargementProgressif() throws Exception {
+        for (int i = 0; i < 1200; i++) {
+            gestionEvenements.ajouterEvenement(new Concert("Concert " + i, LocalDateTime.now().plusDays(i),
+                    "Salle", 10, "Artiste", "Rock"));
+        }
+        gestionEvenements.sauvegarderEvenements(fichierTest);
+        gestionEvenements.supprimerEvenement(gestionEvenements.getEvenements().keySet().iterator().next());
+
+        List<Integer> lots = new CopyOnWriteArrayList<>();
+        AtomicInteger derniereProgression = new AtomicInteger();
+        int nombre = gestionEvenements.chargerEvenementsAsync(fichierTest, (lot, octetsLus, octetsTotal) -> {
+            lots.add(lot.size());
+            derniereProgression.set((int) (100 * octetsLus / octetsTotal));
+        }).get(30, TimeUnit.SECONDS);
+
+        // Les événements arrivent par lots, le catalogue et ses index sont remplacés en fin de lecture
+        assertEquals(1200, nombre);
+        assertEquals(List.of(500, 500, 200), lots);
+        assertEquals(100, derniereProgression.get());
+        assertEquals(1200, gestionEvenements.getEvenements().size());
+        assertEquals(1, gestionEvenements.rechercherEvenementParNom("Concert 1199").size());
+    }
+
+    @Test
+    public void testChargementProgressifFichierTronqueConserveCatalogue() throws Exception {
+        for (int i = 0; i < 1200; i++) {
+            gestionEvenements.ajouterEvenement(new Concert("Concert " + i, LocalDateTime.now().plusDays(i),
+                    "Salle", 10, "Artiste", "Rock"));
+        }
+        gestionEvenements.sauvegarderEvenements(fichierTest);
+        try (RandomAccessFile acces = new RandomAccessFile(fichierTest, "rw")) {
+            acces.setLength(acces.length() / 2);
+        }
+        gestionEvenements.ajouterEvenement(evenement1);
+        Map<String, Evenement> avant = Map.copyOf(gestionEvenements.getEvenements());
+
+        CompletableFuture<Integer> chargement = gestionEvenements.chargerEvenementsAsync(fichierTest,
+                (lot, octetsLus, octetsTotal) -> { });
+        assertThrows(ExecutionException.class, () -> chargement.get(30, TimeUnit.SECONDS));
+
+        // La lecture a échoué avant la fin : le catalogue et ses index sont ceux d'avant le chargement
+        assertEquals(avant, gestionEvenements.getEvenements());
+        assertEquals(1, gestionEvenements.rechercherEvenementParNom("Concert 1199").size());
+        assertTrue(gestionEvenements.rechercherEvenementParNom("Concert de Test").containsKey(evenement1.getId()));
+    }
+
+    @Test
+    public void testOuvertureCatalogueMappe() throws Exception {
+        File fichier = File.createTempFile("evenements", ".bin");
+        try {
+            for (int i = 0; i < 1000; i++) {
+                gestionEvenements.ajouterEvenement(new Concert("Concert " + i, LocalDateTime.now().plusDays(i),
+                        "Salle " + (i % 3), 10, "Artiste", "Rock"));
+            }
+            evenement1.ajouterParticipant(participant1);
+            gestionEvenements.ajouterEvenement(evenement1);
+            gestionEvenements.setSerializationStrategy(new BinarySerializationStrategy());
+            gestionEvenements.sauvegarderEvenements(fichier.getPath());
+
+            // Rien n'est décodé à l'ouverture, seul l'événement consulté l'est
+            gestionEvenements.ouvrirEvenementsMappes(fichier.getPath());
+            MappedEvenementStore store = (MappedEvenementStore) gestionEvenements.getEvenementStore();
+            assertEquals(1001, store.taille());
+            assertEquals(0, store.nombreEvenementsResidents());
+            Evenement charge = gestionEvenements.rechercherEvenement(evenement1.getId());
+            assertEquals("Concert de Test", charge.getNom());
+            assertEquals(List.of(participant1), charge.getParticipants());
+            assertSame(charge, gestionEvenements.rechercherEvenement(evenement1.getId()));
+            assertEquals(1, store.nombreEvenementsResidents());
+            assertNull(gestionEvenements.rechercherEvenement("inconnu"));
+
+            // Les modifications en mémoire sont visibles des index construits à la première recherche
+            charge.setNom("Festival renommé");
+            String id999 = gestionEvenements.rechercherEvenementParNom("Concert 999").keySet().iterator().next();
+            Map<String, Evenement> vue = gestionEvenements.getEvenements();
+            gestionEvenements.supprimerEvenement(id999);
+            assertEquals(1, gestionEvenements.rechercherEvenementParNom("festival").size());
+            assertEquals(1000, gestionEvenements.getEvenements().size());
+
+            // Une vue prise avant la suppression retourne toujours les mêmes instances
+            assertSame(charge, vue.get(evenement1.getId()));
+            Evenement supprime = vue.get(id999);
+            assertEquals("Concert 999", supprime.getNom());
+            assertSame(supprime, vue.get(id999));
+
+            // La sauvegarde au même emplacement détache le store du fichier avant de le réécrire
+            gestionEvenements.sauvegarderEvenements(fichier.getPath());
+            assertNull(store.getFichier());
+            gestionEvenements.ouvrirEvenementsMappes(fichier.getPath());
+            assertEquals(1000, gestionEvenements.getEvenements().size());
+            assertEquals("Festival renommé", gestionEvenements.rechercherEvenement(evenement1.getId()).getNom());
+        } finally {
+            gestionEvenements.setEvenementStore(new StripedEvenementStore());
+            fichier.delete();
+        }
+    }
+
+    @Test
+    public void testJournalRejeuApresRedemarrage() throws Exception {
+        Path repertoire = Files.createTempDirectory("journal");
+        try {
+            gestionEvenements.activerJournal(repertoire.toString());
+            gestionEvenements.ajouterEvenement(evenement1);
+            gestionEvenements.ajouterEvenement(evenement2);
+            evenement1.setNom("Concert renommé");
+            evenement1.ajouterParticipant(participant1);
+            gestionEvenements.supprimerEvenement(evenement2.getId());
+            gestionEvenements.synchroniserJournal().get(5, TimeUnit.SECONDS);
+            gestionEvenements.desactiverJournal();
+
+            // Arrêt brutal simulé : le catalogue en mémoire est perdu et le dernier enregistrement est tronqué
+            gestionEvenements.setEvenementStore(new StripedEvenementStore());
+            try (var fichiers = Files.list(repertoire)) {
+                Path segment = fichiers.filter(f -> f.getFileName().toString().endsWith(".log")).findFirst().orElseThrow();
+                Files.write(segment, new byte[]{0, 0, 1, 0, 42}, StandardOpenOption.APPEND);
+            }
+
+            gestionEvenements.activerJournal(repertoire.toString());
+            Map<String, Evenement> restaures = gestionEvenements.getEvenements();
+            assertEquals(1, restaures.size());
+            Evenement restaure = restaures.get(evenement1.getId());
+            assertEquals("Concert renommé", restaure.getNom());
+            assertEquals(List.of(participant1), restaure.getParticipants());
+            assertEquals(1, gestionEvenements.rechercherEvenementParNom("renommé").size());
+
+            // Le rejeu est suivi d'une compaction : un seul instantané et un segment vide subsistent
+            try (var fichiers = Files.list(repertoire)) {
+                assertEquals(2, fichiers.count());
+            }
+        } finally {
+            gestionEvenements.desactiverJournal();
+            try (var fichiers = Files.list(repertoire)) {
+                fichiers.forEach(fichier -> fichier.toFile().delete());
+            }
+            Files.delete(repertoire);
+        }
+    }
+
+    @Test
+    public void testJournalEnregistreDesDeltas() throws Exception {
+        Path repertoire = Files.createTempDirectory("journal");
+        try {
+            Conference conference = new Conference("Grande conférence", LocalDateTime.now(), "Amphi", 1000, "Java");
+            gestionEvenements.activerJournal(repertoire.toString());
+            gestionEvenements.ajouterEvenement(conference);
+            gestionEvenements.synchroniserJournal().get(5, TimeUnit.SECONDS);
+            long tailleInitiale = taillesJournal(repertoire);
+
+            // Chaque inscription ne journalise que le participant : la taille croît linéairement
+            for (int i = 0; i < 500; i++) {
+                conference.ajouterParticipant(new Participant("Participant " + i, "p" + i + "@test.com"));
+            }
+            LocalDateTime nouvelleDate = LocalDateTime.of(2030, 6, 1, 9, 30);
+            conference.setDate(nouvelleDate);
+            conference.ajouterIntervenant("Alice");
+            conference.setTheme("Concurrence");
+            gestionEvenements.synchroniserJournal().get(5, TimeUnit.SECONDS);
+            assertTrue(taillesJournal(repertoire) - tailleInitiale < 500 * 128,
+                    "Une inscription ne doit pas réécrire tout l'événement");
+            gestionEvenements.desactiverJournal();
+
+            gestionEvenements.setEvenementStore(new StripedEvenementStore());
+            gestionEvenements.activerJournal(repertoire.toString());
+            Conference restauree = (Conference) gestionEvenements.rechercherEvenement(conference.getId());
+            assertEquals(conference.getParticipants(), restauree.getParticipants());
+            assertEquals("p499@test.com", restauree.getParticipants().get(499).getEmail());
+            assertEquals(nouvelleDate, restauree.getDate());
+            assertEquals(List.of("Alice"), restauree.getIntervenants());
+            assertEquals("Concurrence", restauree.getTheme());
+        } finally {
+            gestionEvenements.desactiverJournal();
+            try (var fichiers = Files.list(repertoire)) {
+                fichiers.forEach(fichier -> fichier.toFile().delete());
+            }
+            Files.delete(repertoire);
+        }
+    }
+
+    private static long taillesJournal(Path repertoire) throws Exception {
+        try (var fichiers = Files.list(repertoire)) {
+            return fichiers.filter(f -> f.getFileName().toString().endsWith(".log"))
+                    .mapToLong(f -> f.toFile().length()).sum();
+        }
+    }
+
+    @Test
+    public void testSauvegardeEnArrierePlan() throws Exception {
+        gestionEvenements.ajouterEvenement(evenement1);
+        gestionEvenements.ajouterEvenement(evenement2);
+
+        String nomInitial = evenement1.getNom();
+
+        CompletableFuture<Integer> sauvegarde = gestionEvenements.sauvegarderEvenementsAsync(fichierTest);
+        // L'état est encodé à l'appel : un ajout ou une modification ultérieurs ne font pas partie de la sauvegarde
+        gestionEvenements.ajouterEvenement(new Concert("Concert tardif", LocalDateTime.now(), "Salle", 10, "A", "Rock"));
+        evenement1.setNom("Renommé après l'appel");
+        evenement1.ajouterParticipant(participant1);
+        int sauvegardes = sauvegarde.get(10, TimeUnit.SECONDS);
+        assertEquals(2, sauvegardes);
+
+        gestionEvenements.chargerEvenements(fichierTest);
+        assertEquals(2, gestionEvenements.getEvenements().size());
+        assertNotNull(gestionEvenements.rechercherEvenement(evenement2.getId()));
+        assertEquals(nomInitial, gestionEvenements.rechercherEvenement(evenement1.getId()).getNom());
+        assertTrue(gestionEvenements.rechercherEvenement(evenement1.getId()).getParticipants().isEmpty());
+    }
+
+    @Test
+    public void testSauvegardeIncrementaleParSegments() throws Exception {
+        Path repertoire = Files.createTempDirectory("segments");
+        for (int i = 0; i < 200; i++) {
+            gestionEvenements.ajouterEvenement(new Concert("Concert " + i, LocalDateTime.now().plusDays(i),
+                    "Salle", 10, "Artiste", "Rock"));
+        }
+        gestionEvenements.ajouterEvenement(evenement1);
+
+        // Première sauvegarde complète, puis seuls les segments touchés sont réécrits
+        assertEquals(64, gestionEvenements.sauvegarderSegmentsModifies(repertoire.toString()));
+        assertEquals(0, gestionEvenements.sauvegarderSegmentsModifies(repertoire.toString()));
+
+        evenement1.ajouterParticipant(participant1);
+        evenement1.setLieu("Nouvelle salle");
+        assertEquals(1, gestionEvenements.sauvegarderSegmentsModifies(repertoire.toString()));
+        assertEquals(0, gestionEvenements.sauvegarderSegmentsModifies(repertoire.toString()));
+
+        gestionEvenements.ajouterEvenement(evenement2);
+        gestionEvenements.supprimerEvenement(evenement2.getId());
+        assertEquals(1, gestionEvenements.sauvegarderSegmentsModifies(repertoire.toString()));
+
+        // Après rechargement, le disque et la mémoire sont identiques : rien à réécrire
+        assertEquals(201, gestionEvenements.chargerEvenementsSegmentes(repertoire.toString()));
+        assertEquals(List.of(participant1),
+                gestionEvenements.rechercherEvenement(evenement1.getId()).getParticipants());
+        assertEquals("Nouvelle salle", gestionEvenements.rechercherEvenement(evenement1.getId()).getLieu());
+        assertEquals(0, gestionEvenements.sauvegarderSegmentsModifies(repertoire.toString()));
+
+        try (var fichiers = Files.list(repertoire)) {
+            fichiers.forEach(fichier -> fichier.toFile().delete());
+        }
+        Files.delete(repertoire);
+    }
+
+    @Test
+    public void testSauvegardeParallelePartitionneeParMois() throws Exception {
+        Path repertoire = Files.createTempDirectory("segments-mois");
+        LocalDateTime debut = LocalDateTime.of(2030, 1, 15, 20, 0);
+        gestionEvenements.setSerializationStrategy(new BinarySerializationStrategy());
+        gestionEvenements.definirPartitionnementSegments(PartitionnementSegments.parMois());
+        try {
+            for (int i = 0; i < 120; i++) {
+                gestionEvenements.ajouterEvenement(new Concert("Concert " + i, debut.plusMonths(i % 6),
+                        "Salle", 10, "Artiste", "Rock"));
+            }
+            evenement1.setDate(debut);
+            gestionEvenements.ajouterEvenement(evenement1);
+
+            // Un répertoire passé à sauvegarderEvenements reçoit un fichier par mois
+            gestionEvenements.sauvegarderEvenements(repertoire.toString());
+            try (var fichiers = Files.list(repertoire)) {
+                long segments = fichiers.filter(f -> f.getFileName().toString().startsWith("segment-")).count();
+                assertEquals(6, segments);
+            }
+            assertTrue(Files.exists(repertoire.resolve("segment-2030-01.dat")));
+
+            // Déplacer un événement d'un mois à un autre réécrit les deux segments
+            evenement1.setDate(debut.plusMonths(1));
+            assertEquals(2, gestionEvenements.sauvegarderSegmentsModifies(repertoire.toString()));
+
+            gestionEvenements.chargerEvenements(repertoire.toString());
+            assertEquals(121, gestionEvenements.getEvenements().size());
+            assertEquals(debut.plusMonths(1), gestionEvenements.rechercherEvenement(evenement1.getId()).getDate());
+            assertEquals(0, gestionEvenements.sauvegarderSegmentsModifies(repertoire.toString()));
+
+            // Changer de partitionnement réécrit tout le répertoire et supprime les segments mensuels
+            gestionEvenements.definirPartitionnementSegments(PartitionnementSegments.parIdentifiant(8));
+            assertEquals(8, gestionEvenements.sauvegarderSegmentsModifies(repertoire.toString()));
+            assertFalse(Files.exists(repertoire.resolve("segment-2030-01.dat")));
+            gestionEvenements.chargerEvenements(repertoire.toString());
+            assertEquals(121, gestionEvenements.getEvenements().size());
+        } finally {
+            gestionEvenements.definirPartitionnementSegments(PartitionnementSegments.parIdentifiant(64));
+            try (var fichiers = Files.list(repertoire)) {
+                fichiers.forEach(fichier -> fichier.toFile().delete());
+            }
+            Files.delete(repertoire);
+        }
+    }
+
     @Test
     public void testCapaciteMaxAtteinte() {
         // Créer un événement avec une capacité de 1
@@ -178,4 +766,54 @@ public class TestGestionEvenements {
             evenementPetit.ajouterParticipant(participant2);
         });
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testAjoutsConcurrents() throws InterruptedException {
+        int nombreThreads = 8;
+        int evenementsParThread = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(nombreThreads);
+        CountDownLatch depart = new CountDownLatch(1);
+        AtomicInteger doublonsRefuses = new AtomicInteger();
+
+        for (int t = 0; t < nombreThreads; t++) {
+            executor.submit(() -> {
+                depart.await();
+                for (int i = 0; i < evenementsParThread; i++) {
+                    gestionEvenements.ajouterEvenement(new Concert("Concert " + i,
+                            LocalDateTime.now().plusDays(i), "Salle", 10, "Artiste", "Rock"));
+                }
+                // Tous les threads tentent d'ajouter le même événement : un seul doit réussir
+                try {
+                    gestionEvenements.ajouterEvenement(evenement1);
+                } catch (EvenementDejaExistantException e) {
+                    doublonsRefuses.incrementAndGet();
+                }
+                return null;
+            });
+        }
+        depart.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(nombreThreads * evenementsParThread + 1, gestionEvenements.getEvenements().size());
+        assertEquals(nombreThreads - 1, doublonsRefuses.get());
+    }
+
+    @Test
+    public void testInstantaneEvenementsPartage() {
+        gestionEvenements.ajouterEvenement(evenement1);
+
+        // Sans modification, les lecteurs partagent la même vue
+        Map<String, Evenement> vue1 = gestionEvenements.getEvenements();
+        Map<String, Evenement> vue2 = gestionEvenements.getEvenements();
+        assertSame(vue1, vue2);
+        assertThrows(UnsupportedOperationException.class, () -> vue1.remove(evenement1.getId()));
+
+        // Une modification produit une nouvelle vue, l'ancienne reste inchangée
+        gestionEvenements.ajouterEvenement(evenement2);
+        Map<String, Evenement> vue3 = gestionEvenements.getEvenements();
+        assertNotSame(vue1, vue3);
+        assertEquals(1, vue1.size());
+        assertEquals(2, vue3.size());
+    }
+}
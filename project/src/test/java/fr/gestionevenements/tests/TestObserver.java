@@ -4,12 +4,30 @@ import fr.gestionevenements.modele.Concert;
 import fr.gestionevenements.modele.Evenement;
 import fr.gestionevenements.modele.Organisateur;
 import fr.gestionevenements.modele.Participant;
+import fr.gestionevenements.modele.RegistreObservateurs;
+import fr.gestionevenements.service.DispatcheurAsynchrone;
+import fr.gestionevenements.service.DispatcheurGroupe;
+import fr.gestionevenements.service.DispatcheurNotifications;
+import fr.gestionevenements.service.Notification;
+import fr.gestionevenements.service.OutboxNotifications;
+import fr.gestionevenements.service.PipelineNotifications;
+import fr.gestionevenements.service.TransportFichier;
+import fr.gestionevenements.service.TransportMemoire;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.concurrent.CountDownLatch;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -122,4 +140,273 @@ public class TestObserver {
         assertEquals(1, notifications.size());
         assertTrue(notifications.get(0).contains("L'artiste du concert a été modifié"));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testNotificationUniqueInscriptionGroupee() {
+        evenement.ajouterObservateur(organisateur);
+
+        List<Participant> nouveaux = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            nouveaux.add(new Participant("Participant " + i, "p" + i + "@test.com"));
+        }
+        evenement.ajouterParticipants(nouveaux);
+
+        // Une seule notification récapitulative pour les 30 inscriptions
+        assertEquals(30, evenement.getParticipants().size());
+        assertEquals(1, notifications.size());
+        assertTrue(notifications.get(0).contains("30 participant(s) ont été ajoutés"));
+        assertTrue(notifications.get(0).contains("et 20 autre(s)"));
+    }
+
+    @Test
+    public void testDistributionAsynchroneOrdonnee() throws InterruptedException {
+        CountDownLatch lent = new CountDownLatch(1);
+        List<String> recus = Collections.synchronizedList(new ArrayList<>());
+        Participant observateurLent = new Participant("Lent", "lent@test.com") {
+            @Override
+            public void mettreAJour(String message) {
+                try {
+                    lent.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                recus.add(message);
+            }
+        };
+        evenement.ajouterObservateur(observateurLent);
+
+        DispatcheurAsynchrone dispatcheur = new DispatcheurAsynchrone(100);
+        Evenement.setDispatcheurNotifications(dispatcheur);
+        try {
+            // Les setters rendent la main alors que l'observateur est encore bloqué
+            evenement.setNom("Nom 1");
+            evenement.setLieu("Lieu 2");
+            evenement.annuler();
+            assertTrue(recus.isEmpty());
+
+            lent.countDown();
+        } finally {
+            Evenement.setDispatcheurNotifications(DispatcheurNotifications.SYNCHRONE);
+            dispatcheur.close();
+        }
+
+        // L'ordre des messages est préservé pour l'observateur, et sa boîte vidée n'est plus retenue
+        assertEquals(0, dispatcheur.getObservateursEnAttente());
+        assertEquals(3, recus.size());
+        assertTrue(recus.get(0).contains("Nom 1"));
+        assertTrue(recus.get(1).contains("Lieu 2"));
+        assertTrue(recus.get(2).contains("a été annulé"));
+    }
+
+    @Test
+    public void testRegroupementNotificationsParDestinataire() {
+        evenement.ajouterObservateur(participant);
+        evenement.ajouterObservateur(organisateur);
+
+        DispatcheurGroupe dispatcheur = new DispatcheurGroupe(DispatcheurNotifications.SYNCHRONE,
+                Duration.ofMinutes(1), 3);
+        Evenement.setDispatcheurNotifications(dispatcheur);
+        try {
+            evenement.setNom("Nouveau nom");
+            evenement.setDate(LocalDateTime.now().plusDays(8));
+            assertTrue(notifications.isEmpty());
+
+            // Le seuil de 3 messages déclenche un récapitulatif par destinataire
+            evenement.setLieu("Nouveau lieu");
+            assertEquals(2, notifications.size());
+            assertTrue(notifications.get(0).contains("Récapitulatif de 3 notifications"));
+            assertTrue(notifications.get(0).contains("Nouveau lieu"));
+
+            // Les messages restants sont livrés à la fermeture
+            evenement.annuler();
+            dispatcheur.close();
+            assertEquals(4, notifications.size());
+            assertTrue(notifications.get(3).contains("a été annulé"));
+        } finally {
+            Evenement.setDispatcheurNotifications(DispatcheurNotifications.SYNCHRONE);
+        }
+    }
+
+    @Test
+    public void testPipelineTransportsNotifications() throws IOException {
+        Path journal = Files.createTempFile("notifications", ".log");
+        TransportMemoire memoire = new TransportMemoire();
+        PipelineNotifications pipeline = new PipelineNotifications()
+                .ajouterTransport("memoire", memoire, 100, 10, 1)
+                .ajouterTransport("fichier", new TransportFichier(journal), 100, 50, 2);
+        Participant.setServiceNotification(pipeline);
+        try {
+            Participant inscrit = new Participant("Inscrit", "inscrit@test.com");
+            Organisateur responsable = new Organisateur("Responsable", "responsable@test.com");
+            evenement.ajouterObservateur(inscrit);
+            evenement.ajouterObservateur(responsable);
+
+            for (int i = 0; i < 100; i++) {
+                evenement.setLieu("Lieu " + i);
+            }
+        } finally {
+            Participant.setServiceNotification(System.out::println);
+            pipeline.close();
+        }
+
+        List<Notification> recues = memoire.getNotifications();
+        assertEquals(200, recues.size());
+        assertEquals(1, recues.stream().filter(n -> n.prioritaire() && n.message().endsWith("Lieu 0")).count());
+        assertEquals(200, Files.readAllLines(journal).size());
+        pipeline.getStatistiques().forEach(statistiques -> {
+            assertEquals(200, statistiques.envoyees());
+            assertEquals(0, statistiques.echecs());
+        });
+        Files.deleteIfExists(journal);
+    }
+
+    @Test
+    public void testOutboxLivraisonApresRedemarrage() throws IOException {
+        Path repertoire = Files.createTempDirectory("outbox");
+
+        // Premier démarrage : le transport est indisponible, rien n'est livré avant l'arrêt
+        OutboxNotifications outbox = new OutboxNotifications(repertoire, lot -> {
+            throw new IOException("Serveur indisponible");
+        }, 10, 1000, Duration.ofMillis(10), Duration.ofMillis(50), true);
+        for (int i = 0; i < 25; i++) {
+            outbox.envoyerNotification(new Notification("Inscrit", "inscrit@test.com", "Message " + i, false));
+        }
+        outbox.close(Duration.ofMillis(200));
+
+        // Redémarrage : le transport échoue deux fois puis accepte, tout est livré dans l'ordre
+        TransportMemoire memoire = new TransportMemoire();
+        AtomicInteger echecs = new AtomicInteger();
+        OutboxNotifications reprise = new OutboxNotifications(repertoire, lot -> {
+            if (echecs.getAndIncrement() < 2) {
+                throw new IOException("Erreur temporaire");
+            }
+            memoire.transmettre(lot);
+        }, 10, 5, Duration.ofMillis(10), Duration.ofMillis(50), true);
+        reprise.close();
+
+        List<Notification> livrees = memoire.getNotifications();
+        assertEquals(25, livrees.size());
+        assertEquals("Message 0", livrees.get(0).message());
+        assertEquals("Message 24", livrees.get(24).message());
+
+        try (Stream<Path> fichiers = Files.walk(repertoire)) {
+            fichiers.sorted(Comparator.reverseOrder()).forEach(fichier -> fichier.toFile().delete());
+        }
+    }
+
+    @Test
+    public void testOutboxLigneIllisibleOuTronquee() throws IOException {
+        Path repertoire = Files.createTempDirectory("outbox");
+        // Journal laissé par un arrêt brutal : une ligne illisible et une dernière ligne incomplète
+        Files.writeString(repertoire.resolve("outbox.log"),
+                "2026-01-01T10:00\tfalse\tA\ta@test.com\tAvant\n"
+                        + "n'importe quoi\n"
+                        + "2026-01-01T10:01\tfalse\tB\tb@test.com\tAprès\n"
+                        + "2026-01-01T10:02\tfal");
+
+        TransportMemoire memoire = new TransportMemoire();
+        OutboxNotifications outbox = new OutboxNotifications(repertoire, memoire,
+                10, 3, Duration.ofMillis(10), Duration.ofMillis(50), true);
+        // Une notification ajoutée après la reprise n'est pas collée à la ligne incomplète
+        outbox.envoyerNotification(new Notification("C", "c@test.com", "Nouvelle", false));
+        outbox.close(Duration.ofSeconds(5));
+
+        List<String> messages = memoire.getNotifications().stream().map(Notification::message).toList();
+        assertEquals(List.of("Avant", "Après", "Nouvelle"), messages);
+        assertEquals(List.of("n'importe quoi"), Files.readAllLines(repertoire.resolve("outbox.echecs")));
+
+        try (Stream<Path> fichiers = Files.walk(repertoire)) {
+            fichiers.sorted(Comparator.reverseOrder()).forEach(fichier -> fichier.toFile().delete());
+        }
+    }
+
+    @Test
+    public void testOutboxEnregistreDesLaCreation() throws IOException {
+        Path repertoire = Files.createTempDirectory("outbox");
+        evenement.ajouterObservateur(participant);
+        evenement.ajouterObservateur(organisateur);
+        TransportMemoire memoire = new TransportMemoire();
+        OutboxNotifications outbox = new OutboxNotifications(repertoire, memoire,
+                10, 3, Duration.ofMillis(10), Duration.ofMillis(50), true);
+        try {
+            outbox.setFenetreRegroupement(Duration.ofSeconds(1));
+            Evenement.setDispatcheurNotifications(outbox);
+            evenement.setNom("Nouveau nom");
+            evenement.annuler();
+
+            // Enregistrées dès leur création, avant la fin de la fenêtre et toute livraison
+            assertTrue(notifications.isEmpty());
+            assertTrue(memoire.getNotifications().isEmpty());
+            assertEquals(4, Files.readAllLines(repertoire.resolve("outbox.log")).size());
+
+            // À la fin de la fenêtre, un récapitulatif par destinataire
+            outbox.close(Duration.ofSeconds(5));
+            List<Notification> livrees = memoire.getNotifications();
+            assertEquals(2, livrees.size());
+            assertEquals("participant@test.com", livrees.get(0).email());
+            assertTrue(livrees.get(0).message().contains("Récapitulatif de 2 notifications"));
+            assertTrue(livrees.get(1).prioritaire());
+            assertTrue(livrees.get(1).message().contains("a été annulé"));
+        } finally {
+            Evenement.setDispatcheurNotifications(DispatcheurNotifications.SYNCHRONE);
+            try (Stream<Path> fichiers = Files.walk(repertoire)) {
+                fichiers.sorted(Comparator.reverseOrder()).forEach(fichier -> fichier.toFile().delete());
+            }
+        }
+    }
+
+    @Test
+    public void testRegistreObservateursStatistiquesEtLimite() {
+        evenement.ajouterObservateur(participant);
+        evenement.ajouterObservateur(participant);
+        evenement.ajouterObservateur(organisateur);
+        evenement.supprimerObservateur(participant);
+
+        RegistreObservateurs.Statistiques statistiques = evenement.getStatistiquesObservateurs();
+        assertEquals(1, statistiques.abonnes());
+        assertEquals(2, statistiques.abonnements());
+        assertEquals(1, statistiques.desabonnements());
+
+        RegistreObservateurs registre = new RegistreObservateurs(1);
+        registre.ajouter(participant);
+        assertThrows(IllegalStateException.class, () -> registre.ajouter(organisateur));
+    }
+
+    @Test
+    public void testAbonnementFortEtFaibleNonDoubles() {
+        // Un observateur déjà abonné fortement n'est pas abonné une seconde fois faiblement
+        evenement.ajouterObservateur(participant);
+        evenement.ajouterObservateurFaible(participant);
+        assertEquals(1, evenement.getStatistiquesObservateurs().abonnes());
+        evenement.annuler();
+        assertEquals(1, notifications.size());
+
+        // Un abonnement faible est rendu fort, sans compter un abonné de plus contre la limite
+        RegistreObservateurs registre = new RegistreObservateurs(1);
+        assertTrue(registre.ajouterFaible(participant));
+        assertTrue(registre.ajouter(participant));
+        assertFalse(registre.ajouterFaible(participant));
+        assertEquals(List.of(participant), registre.getObservateursForts());
+        assertEquals(1, registre.getStatistiques().abonnes());
+        assertTrue(registre.supprimer(participant));
+        assertFalse(registre.contient(participant));
+    }
+
+    @Test
+    public void testObservateurFaibleCollecte() throws InterruptedException {
+        evenement.ajouterObservateur(organisateur);
+        evenement.ajouterObservateurFaible(new Participant("Éphémère", "ephemere@test.com"));
+        assertEquals(2, evenement.getStatistiquesObservateurs().abonnes());
+
+        // L'observateur faible n'est plus référencé : il disparaît du registre après collecte
+        for (int i = 0; i < 50 && evenement.getStatistiquesObservateurs().abonnes() > 1; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertEquals(1, evenement.getStatistiquesObservateurs().abonnes());
+        assertEquals(1, evenement.getStatistiquesObservateurs().collectes());
+
+        evenement.annuler();
+        assertEquals(1, notifications.size());
+    }
+}
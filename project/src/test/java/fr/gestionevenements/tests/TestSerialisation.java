@@ -3,18 +3,36 @@ package fr.gestionevenements.tests;
 import fr.gestionevenements.modele.Concert;
 import fr.gestionevenements.modele.Conference;
 import fr.gestionevenements.modele.Evenement;
+import fr.gestionevenements.modele.Organisateur;
 import fr.gestionevenements.modele.Participant;
+import fr.gestionevenements.serialisation.BinarySerializationStrategy;
+import fr.gestionevenements.serialisation.CompressedSerializationStrategy;
+import fr.gestionevenements.serialisation.Compression;
+import fr.gestionevenements.serialisation.EcritureAtomique;
 import fr.gestionevenements.serialisation.JSONSerializationStrategy;
+import fr.gestionevenements.serialisation.RegistreStrategies;
 import fr.gestionevenements.serialisation.SerializationStrategy;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -105,6 +123,233 @@ public class TestSerialisation {
         }
     }
 
+    @Test
+    public void testBinarySerialization() throws Exception {
+        Conference conference = (Conference) evenements.values().stream()
+                .filter(e -> e instanceof Conference).findFirst().orElseThrow();
+        Organisateur organisateur = new Organisateur("Orga Test", "orga@test.com");
+        organisateur.ajouterEvenementOrganise(conference);
+        conference.ajouterParticipant(new Participant("Paul Test", "paul@test.com"));
+
+        SerializationStrategy strategy = new BinarySerializationStrategy();
+        File fichier = File.createTempFile("evenements", ".bin");
+        strategy.serialiser(evenements, fichier.getPath());
+        Map<String, Evenement> evenementsCharges = strategy.deserialiser(fichier.getPath());
+        fichier.delete();
+
+        assertEquals(evenements.keySet(), evenementsCharges.keySet());
+        for (Evenement original : evenements.values()) {
+            Evenement charge = evenementsCharges.get(original.getId());
+            assertEquals(original.getClass(), charge.getClass());
+            assertEquals(original.getNom(), charge.getNom());
+            assertEquals(original.getDate(), charge.getDate());
+            assertEquals(original.getLieu(), charge.getLieu());
+            assertEquals(original.getCapaciteMax(), charge.getCapaciteMax());
+            assertEquals(original.getParticipants(), charge.getParticipants());
+            assertEquals(original.getAttributsIndexables(), charge.getAttributsIndexables());
+        }
+        Conference conferenceChargee = (Conference) evenementsCharges.get(conference.getId());
+        assertEquals(List.of("Intervenant Test"), conferenceChargee.getIntervenants());
+        // L'ordre d'inscription et l'abonnement de l'organisateur sont conservés
+        assertEquals("Paul Test", conferenceChargee.getParticipants().get(1).getNom());
+        assertTrue(conferenceChargee.getObservateursPersistes().get(0) instanceof Participant);
+        assertTrue(conferenceChargee.getObservateursPersistes().contains(organisateur));
+    }
+
+    @Test
+    public void testBinairePlusCompactQueJSON() throws Exception {
+        for (int i = 0; i < 500; i++) {
+            Concert concert = new Concert("Concert " + i, LocalDateTime.now().plusDays(i),
+                    "Salle " + (i % 5), 50, "Artiste " + (i % 20), "Jazz");
+            concert.ajouterParticipant(new Participant("Participant " + i, "p" + i + "@test.com"));
+            evenements.put(concert.getId(), concert);
+        }
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        new JSONSerializationStrategy().ecrire(evenements, json);
+        ByteArrayOutputStream binaire = new ByteArrayOutputStream();
+        new BinarySerializationStrategy().ecrire(evenements, binaire);
+
+        assertTrue(binaire.size() * 3 < json.size());
+        List<Evenement> relus = new ArrayList<>();
+        new BinarySerializationStrategy().lire(new ByteArrayInputStream(binaire.toByteArray()), relus::add);
+        assertEquals(evenements.size(), relus.size());
+    }
+
+    @Test
+    public void testFichierTronqueNonPrisPourCatalogueVide() throws Exception {
+        for (SerializationStrategy strategy : List.of(new JSONSerializationStrategy(), new BinarySerializationStrategy())) {
+            File fichier = File.createTempFile("evenements", ".sauvegarde");
+            strategy.serialiser(evenements, fichier.getPath());
+            try (RandomAccessFile acces = new RandomAccessFile(fichier, "rw")) {
+                acces.setLength(acces.length() / 2);
+            }
+
+            assertThrows(UncheckedIOException.class, () -> strategy.deserialiser(fichier.getPath()));
+            fichier.delete();
+        }
+    }
+
+    @Test
+    public void testSauvegardeEchoueeConserveAncienFichier() throws Exception {
+        SerializationStrategy strategy = new BinarySerializationStrategy();
+        File fichier = File.createTempFile("evenements", ".bin");
+        strategy.serialiser(evenements, fichier.getPath());
+        long tailleInitiale = fichier.length();
+
+        // Un type d'événement inconnu du format binaire fait échouer l'écriture en cours de route
+        Map<String, Evenement> invalides = new HashMap<>(evenements);
+        Evenement inconnu = new Evenement("Inconnu", LocalDateTime.now(), "Nulle part", 1) { };
+        invalides.put(inconnu.getId(), inconnu);
+        assertThrows(UncheckedIOException.class, () -> strategy.serialiser(invalides, fichier.getPath()));
+
+        assertEquals(tailleInitiale, fichier.length());
+        assertEquals(evenements.keySet(), strategy.deserialiser(fichier.getPath()).keySet());
+        // Aucun fichier temporaire n'est laissé à côté de la cible
+        File[] temporaires = fichier.getParentFile().listFiles((dossier, nom) ->
+                nom.startsWith(fichier.getName()) && nom.endsWith(".tmp"));
+        assertEquals(0, temporaires.length);
+        fichier.delete();
+    }
+
+    @Test
+    public void testEcrituresAtomiquesConcurrentes() throws Exception {
+        File fichier = File.createTempFile("concurrent", ".bin");
+        byte[] premier = new byte[256 * 1024];
+        byte[] second = new byte[256 * 1024];
+        Arrays.fill(premier, (byte) 1);
+        Arrays.fill(second, (byte) 2);
+
+        // Deux sauvegardes simultanées de la même cible : le fichier final est l'une ou l'autre, jamais un mélange
+        for (int essai = 0; essai < 20; essai++) {
+            Thread autre = new Thread(() -> {
+                try {
+                    EcritureAtomique.ecrire(fichier.toPath(), sortie -> sortie.write(second));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            autre.start();
+            EcritureAtomique.ecrire(fichier.toPath(), sortie -> sortie.write(premier));
+            autre.join();
+            byte[] contenu = Files.readAllBytes(fichier.toPath());
+            assertTrue(Arrays.equals(premier, contenu) || Arrays.equals(second, contenu));
+        }
+        fichier.delete();
+    }
+
+    @Test
+    public void testSerialisationCompressee() throws Exception {
+        for (int i = 0; i < 2000; i++) {
+            Concert concert = new Concert("Concert " + i, LocalDateTime.now().plusDays(i % 365),
+                    "Salle " + (i % 5), 50, "Artiste " + (i % 20), "Jazz");
+            concert.ajouterParticipant(new Participant("Participant " + i, "p" + i + "@test.com"));
+            evenements.put(concert.getId(), concert);
+        }
+        for (SerializationStrategy format : List.of(new JSONSerializationStrategy(), new BinarySerializationStrategy())) {
+            ByteArrayOutputStream brut = new ByteArrayOutputStream();
+            format.ecrire(evenements, brut);
+            for (Compression compression : List.of(Compression.GZIP, Compression.BLOCS)) {
+                SerializationStrategy strategy = new CompressedSerializationStrategy(format, compression);
+                File fichier = File.createTempFile("evenements", ".sauvegarde" + compression.getExtension());
+                strategy.serialiser(evenements, fichier.getPath());
+                assertTrue(fichier.length() < brut.size(),
+                        compression + " : " + fichier.length() + " octets pour " + brut.size() + " non compressés");
+                Map<String, Evenement> charges = strategy.deserialiser(fichier.getPath());
+                assertEquals(evenements.keySet(), charges.keySet());
+                Evenement original = evenements.values().iterator().next();
+                assertEquals(original.getParticipants(), charges.get(original.getId()).getParticipants());
+
+                // Un fichier compressé tronqué est signalé, jamais pris pour un catalogue partiel
+                try (RandomAccessFile acces = new RandomAccessFile(fichier, "rw")) {
+                    acces.setLength(acces.length() - 8);
+                }
+                assertThrows(UncheckedIOException.class, () -> strategy.deserialiser(fichier.getPath()));
+                fichier.delete();
+            }
+
+            // Les fichiers non compressés restent lisibles
+            List<Evenement> lus = new ArrayList<>();
+            new CompressedSerializationStrategy(format, Compression.BLOCS)
+                    .lire(new ByteArrayInputStream(brut.toByteArray()), lus::add);
+            assertEquals(evenements.size(), lus.size());
+        }
+    }
+
+    @Test
+    public void testJSONSansTypageParDefaut() throws Exception {
+        Conference conference = (Conference) evenements.values().stream()
+                .filter(e -> e instanceof Conference).findFirst().orElseThrow();
+        Organisateur organisateur = new Organisateur("Orga Test", "orga@test.com");
+        organisateur.ajouterEvenementOrganise(conference);
+
+        ByteArrayOutputStream sortie = new ByteArrayOutputStream();
+        new JSONSerializationStrategy().ecrire(evenements, sortie);
+        String json = sortie.toString(StandardCharsets.UTF_8);
+        // Seuls les événements et les observateurs portent leur type : ni type racine ni listes enveloppées
+        assertFalse(json.contains("java.util"));
+        assertTrue(json.contains("fr.gestionevenements.modele.Organisateur"));
+
+        List<Evenement> lus = new ArrayList<>();
+        new JSONSerializationStrategy().lire(new ByteArrayInputStream(sortie.toByteArray()), lus::add);
+        Conference relue = (Conference) lus.stream()
+                .filter(e -> e.getId().equals(conference.getId())).findFirst().orElseThrow();
+        assertEquals(List.of("Intervenant Test"), relue.getIntervenants());
+        assertTrue(relue.getObservateursPersistes().stream()
+                .anyMatch(o -> o instanceof Organisateur orga && orga.getId().equals(organisateur.getId())));
+    }
+
+    @Test
+    public void testLectureJSONFormatHerite() throws Exception {
+        // Format écrit avec activateDefaultTyping(NON_FINAL) : type racine et listes enveloppées de leur type
+        String json = """
+                {
+                  "@class" : "java.util.HashMap",
+                  "c1" : {
+                    "@class" : "fr.gestionevenements.modele.Conference",
+                    "id" : "c1",
+                    "capaciteMax" : 10,
+                    "Nom" : "Conf",
+                    "date" : [ 2030, 1, 1, 10, 0 ],
+                    "lieu" : "Lyon",
+                    "participants" : [ "java.util.ArrayList", [ {
+                      "@class" : "fr.gestionevenements.modele.Participant",
+                      "id" : "p1",
+                      "nom" : "P",
+                      "email" : "p@x"
+                    } ] ],
+                    "theme" : "Tech",
+                    "intervenants" : [ "java.util.ArrayList", [ "Alice" ] ],
+                    "participantObserver" : [ "java.util.ArrayList", [ ] ]
+                  }
+                }
+                """;
+        List<Evenement> lus = new ArrayList<>();
+        new JSONSerializationStrategy().lire(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), lus::add);
+        assertEquals(1, lus.size());
+        Conference conference = (Conference) lus.get(0);
+        assertEquals(List.of("Alice"), conference.getIntervenants());
+        assertEquals("p1", conference.getParticipants().get(0).getId());
+    }
+
+    @Test
+    public void testRegistreStrategiesPartagees() throws Exception {
+        RegistreStrategies.prechauffer();
+        SerializationStrategy json = RegistreStrategies.obtenir(RegistreStrategies.Format.JSON, Compression.AUCUNE);
+        assertSame(json, RegistreStrategies.obtenir(RegistreStrategies.Format.JSON, Compression.AUCUNE));
+        assertTrue(json instanceof JSONSerializationStrategy);
+        // Le diagnostic est porté par une autre instance : la stratégie partagée n'est jamais modifiée
+        assertNotSame(json, ((JSONSerializationStrategy) json).avecDiagnostic());
+        SerializationStrategy binaireGzip =
+                RegistreStrategies.obtenir(RegistreStrategies.Format.BINAIRE, Compression.GZIP);
+        assertTrue(binaireGzip instanceof CompressedSerializationStrategy);
+
+        ByteArrayOutputStream sortie = new ByteArrayOutputStream();
+        binaireGzip.ecrire(evenements, sortie);
+        List<Evenement> lus = new ArrayList<>();
+        binaireGzip.lire(new ByteArrayInputStream(sortie.toByteArray()), lus::add);
+        assertEquals(evenements.size(), lus.size());
+    }
+
     @Test
     public void testDeserializationFichierInexistant() {
         SerializationStrategy strategyJSON = new JSONSerializationStrategy();
@@ -116,4 +361,24 @@ public class TestSerialisation {
         assertTrue(resultatJSON.isEmpty());
 
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testEcritureJSONEnFlux() throws Exception {
+        for (int i = 0; i < 5000; i++) {
+            Concert concert = new Concert("Concert " + i, LocalDateTime.now().plusDays(i % 365),
+                    "Salle " + (i % 10), 100, "Artiste " + i, "Rock");
+            evenements.put(concert.getId(), concert);
+        }
+        JSONSerializationStrategy strategy = new JSONSerializationStrategy();
+
+        // Le flux écrit est relisible par la désérialisation habituelle
+        File fichier = File.createTempFile("evenements", ".json");
+        try (OutputStream sortie = new FileOutputStream(fichier)) {
+            strategy.ecrire(evenements, sortie);
+        }
+        Map<String, Evenement> evenementsCharges = strategy.deserialiser(fichier.getPath());
+        assertEquals(evenements.size(), evenementsCharges.size());
+        assertEquals(evenements.keySet(), evenementsCharges.keySet());
+        fichier.delete();
+    }
+}